@@ -0,0 +1,93 @@
+package com.merca.merca.analytics;
+
+import com.merca.merca.repository.FormularioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Mantiene la instantánea en columnas de los formularios y responde las consultas
+ * analíticas sobre ella, sin tocar la base de datos. La instantánea se vuelve a leer
+ * completa cada cierto tiempo; entre lecturas las consultas ven los datos de la última.
+ */
+@Service
+public class AnaliticaService {
+
+    private static final Logger log = LoggerFactory.getLogger(AnaliticaService.class);
+
+    @Autowired
+    private FormularioRepository formularioRepository;
+
+    private final TransactionTemplate transaccionLectura;
+
+    /**
+     * Una sola lectura de la instantánea a la vez
+     */
+    private final ReentrantLock reconstruccion = new ReentrantLock();
+
+    private volatile InstantaneaFormularios instantanea;
+
+    public AnaliticaService(PlatformTransactionManager transactionManager) {
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+    }
+
+    /**
+     * Vuelve a leer los formularios y reemplaza la instantánea
+     */
+    @Scheduled(fixedDelayString = "${app.analitica.refresco-ms:300000}",
+               initialDelayString = "${app.analitica.retraso-inicial-ms:0}")
+    public void refrescar() {
+        reconstruccion.lock();
+        try {
+            long inicio = System.currentTimeMillis();
+            LocalDateTime generadaEn = LocalDateTime.now();
+            InstantaneaFormularios nueva = transaccionLectura.execute(status -> {
+                ConstructorInstantanea constructor = new ConstructorInstantanea((int) formularioRepository.count());
+                try (Stream<FilaAnalitica> filas = formularioRepository.streamFilasAnaliticas()) {
+                    filas.forEach(constructor::agregar);
+                }
+                return constructor.construir(generadaEn);
+            });
+            instantanea = nueva;
+            log.info("Instantánea analítica de formularios: {} filas en {} ms",
+                    nueva.getFilas(), System.currentTimeMillis() - inicio);
+        } finally {
+            reconstruccion.unlock();
+        }
+    }
+
+    /**
+     * Ejecuta una consulta sobre la instantánea vigente
+     */
+    public ResultadoAnalitico consultar(ConsultaAnalitica consulta) {
+        return obtenerInstantanea().consultar(consulta);
+    }
+
+    /**
+     * Instantánea vigente; si aún no se ha leído ninguna, la lee en este momento
+     */
+    public InstantaneaFormularios obtenerInstantanea() {
+        InstantaneaFormularios actual = instantanea;
+        if (actual == null) {
+            reconstruccion.lock();
+            try {
+                if (instantanea == null) {
+                    refrescar();
+                }
+                actual = instantanea;
+            } finally {
+                reconstruccion.unlock();
+            }
+        }
+        return actual;
+    }
+}
@@ -0,0 +1,120 @@
+package com.merca.merca.analytics;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Arma una {@link InstantaneaFormularios} fila por fila, codificando los textos
+ * con diccionarios y haciendo crecer las columnas según se necesite.
+ */
+public class ConstructorInstantanea {
+
+    private final Map<String, Integer> codigosTienda = new HashMap<>();
+    private final List<String> tiendas = new ArrayList<>();
+    private final Map<String, Integer> codigosArea = new HashMap<>();
+    private final List<String> areas = new ArrayList<>();
+    private final Map<Long, Integer> codigosProveedor = new HashMap<>();
+    private final List<Long> proveedorIds = new ArrayList<>();
+    private final List<String> proveedorNombres = new ArrayList<>();
+
+    private int filas;
+    private int[] tienda;
+    private int[] area;
+    private int[] proveedor;
+    private byte[] estado;
+    private byte[] tipoEspacio;
+    private int[] fechaInicio;
+    private int[] fechaFin;
+    private int[] mesCreacion;
+    private double[] precio;
+    private double[] metros;
+
+    private int mesMinimo = Integer.MAX_VALUE;
+    private int mesMaximo = Integer.MIN_VALUE;
+
+    public ConstructorInstantanea(int capacidadInicial) {
+        int capacidad = Math.max(16, capacidadInicial);
+        tienda = new int[capacidad];
+        area = new int[capacidad];
+        proveedor = new int[capacidad];
+        estado = new byte[capacidad];
+        tipoEspacio = new byte[capacidad];
+        fechaInicio = new int[capacidad];
+        fechaFin = new int[capacidad];
+        mesCreacion = new int[capacidad];
+        precio = new double[capacidad];
+        metros = new double[capacidad];
+    }
+
+    /**
+     * Agrega un formulario a la instantánea
+     */
+    public void agregar(FilaAnalitica fila) {
+        if (filas == tienda.length) {
+            crecer();
+        }
+        int i = filas++;
+        tienda[i] = codificar(fila.codigoTienda(), codigosTienda, tiendas);
+        area[i] = codificar(fila.areaAsignada(), codigosArea, areas);
+        proveedor[i] = codigosProveedor.computeIfAbsent(fila.proveedorId(), id -> {
+            proveedorIds.add(id);
+            proveedorNombres.add(fila.proveedorNombre());
+            return proveedorIds.size() - 1;
+        });
+        estado[i] = (byte) fila.estado().ordinal();
+        tipoEspacio[i] = (byte) fila.tipoEspacio().ordinal();
+        fechaInicio[i] = (int) fila.fechaInicio().toEpochDay();
+        fechaFin[i] = (int) fila.fechaFin().toEpochDay();
+        int mes = InstantaneaFormularios.codigoMes(YearMonth.from(fila.fechaCreacion()));
+        mesCreacion[i] = mes;
+        mesMinimo = Math.min(mesMinimo, mes);
+        mesMaximo = Math.max(mesMaximo, mes);
+        precio[i] = fila.precioAcordado() != null ? fila.precioAcordado() : Double.NaN;
+        metros[i] = fila.metrosCuadrados() != null ? fila.metrosCuadrados() : Double.NaN;
+    }
+
+    /**
+     * Cierra la instantánea; las columnas se recortan al número de filas agregadas
+     */
+    public InstantaneaFormularios construir(LocalDateTime generadaEn) {
+        long[] ids = new long[proveedorIds.size()];
+        for (int p = 0; p < ids.length; p++) {
+            ids[p] = proveedorIds.get(p);
+        }
+        return new InstantaneaFormularios(generadaEn, filas,
+                tiendas.toArray(String[]::new), areas.toArray(String[]::new),
+                ids, proveedorNombres.toArray(String[]::new),
+                Arrays.copyOf(tienda, filas), Arrays.copyOf(area, filas), Arrays.copyOf(proveedor, filas),
+                Arrays.copyOf(estado, filas), Arrays.copyOf(tipoEspacio, filas),
+                Arrays.copyOf(fechaInicio, filas), Arrays.copyOf(fechaFin, filas),
+                Arrays.copyOf(mesCreacion, filas), Arrays.copyOf(precio, filas), Arrays.copyOf(metros, filas),
+                mesMinimo, mesMaximo);
+    }
+
+    private static int codificar(String valor, Map<String, Integer> codigos, List<String> diccionario) {
+        String texto = valor != null ? valor : "";
+        return codigos.computeIfAbsent(texto, t -> {
+            diccionario.add(t);
+            return diccionario.size() - 1;
+        });
+    }
+
+    private void crecer() {
+        int capacidad = tienda.length + (tienda.length >> 1);
+        tienda = Arrays.copyOf(tienda, capacidad);
+        area = Arrays.copyOf(area, capacidad);
+        proveedor = Arrays.copyOf(proveedor, capacidad);
+        estado = Arrays.copyOf(estado, capacidad);
+        tipoEspacio = Arrays.copyOf(tipoEspacio, capacidad);
+        fechaInicio = Arrays.copyOf(fechaInicio, capacidad);
+        fechaFin = Arrays.copyOf(fechaFin, capacidad);
+        mesCreacion = Arrays.copyOf(mesCreacion, capacidad);
+        precio = Arrays.copyOf(precio, capacidad);
+        metros = Arrays.copyOf(metros, capacidad);
+    }
+}
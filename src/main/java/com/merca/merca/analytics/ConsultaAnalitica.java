@@ -0,0 +1,36 @@
+package com.merca.merca.analytics;
+
+import com.merca.merca.entity.Formulario;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Set;
+
+/**
+ * Agrupación y filtros de una consulta sobre la instantánea de formularios.
+ * Un filtro nulo o vacío no restringe. El rango de meses se aplica sobre la
+ * fecha de creación y es inclusivo; vigenteEn deja solo los formularios cuyo
+ * periodo (fecha de inicio a fecha de fin) incluye ese día.
+ */
+public record ConsultaAnalitica(DimensionAnalitica agruparPor,
+                                Set<String> tiendas,
+                                Set<Long> proveedores,
+                                Set<Formulario.Estado> estados,
+                                Set<Formulario.TipoEspacio> tiposEspacio,
+                                YearMonth desde,
+                                YearMonth hasta,
+                                LocalDate vigenteEn) {
+
+    public ConsultaAnalitica {
+        if (agruparPor == null) {
+            throw new IllegalArgumentException("La dimensión de agrupación es obligatoria");
+        }
+    }
+
+    /**
+     * Consulta sin filtros agrupada por la dimensión indicada
+     */
+    public static ConsultaAnalitica agrupadaPor(DimensionAnalitica dimension) {
+        return new ConsultaAnalitica(dimension, null, null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,13 @@
+package com.merca.merca.analytics;
+
+/**
+ * Columnas por las que se puede agrupar una consulta analítica
+ */
+public enum DimensionAnalitica {
+    TIENDA,
+    AREA,
+    PROVEEDOR,
+    TIPO_ESPACIO,
+    ESTADO,
+    MES
+}
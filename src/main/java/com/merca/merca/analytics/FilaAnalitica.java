@@ -0,0 +1,22 @@
+package com.merca.merca.analytics;
+
+import com.merca.merca.entity.Formulario;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Columnas de un formulario que se leen de la base de datos para armar la instantánea
+ */
+public record FilaAnalitica(String codigoTienda,
+                            String areaAsignada,
+                            Long proveedorId,
+                            String proveedorNombre,
+                            Formulario.Estado estado,
+                            Formulario.TipoEspacio tipoEspacio,
+                            LocalDate fechaInicio,
+                            LocalDate fechaFin,
+                            LocalDateTime fechaCreacion,
+                            Double precioAcordado,
+                            Double metrosCuadrados) {
+}
@@ -0,0 +1,282 @@
+package com.merca.merca.analytics;
+
+import com.merca.merca.entity.Formulario;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Copia inmutable y en columnas de los formularios, para consultas analíticas en memoria.
+ * Cada columna es un arreglo primitivo indexado por fila: los textos se guardan como
+ * códigos de diccionario, los enums como ordinales, las fechas como días desde la época
+ * y los importes como double (NaN cuando el dato no existe). Las consultas recorren
+ * las filas por bloques en paralelo y acumulan por código de grupo.
+ */
+public final class InstantaneaFormularios {
+
+    /**
+     * Filas que recorre cada tarea de la búsqueda en paralelo
+     */
+    static final int TAMANO_BLOQUE = 1 << 16;
+
+    private static final Formulario.Estado[] ESTADOS = Formulario.Estado.values();
+    private static final Formulario.TipoEspacio[] TIPOS_ESPACIO = Formulario.TipoEspacio.values();
+
+    private final LocalDateTime generadaEn;
+    private final int filas;
+
+    private final String[] tiendas;
+    private final String[] areas;
+    private final long[] proveedorIds;
+    private final String[] proveedorNombres;
+
+    private final int[] tienda;
+    private final int[] area;
+    private final int[] proveedor;
+    private final byte[] estado;
+    private final byte[] tipoEspacio;
+    private final int[] fechaInicio;
+    private final int[] fechaFin;
+    private final int[] mesCreacion;
+    private final double[] precio;
+    private final double[] metros;
+
+    private final int mesMinimo;
+    private final int mesMaximo;
+
+    InstantaneaFormularios(LocalDateTime generadaEn, int filas, String[] tiendas, String[] areas,
+                           long[] proveedorIds, String[] proveedorNombres, int[] tienda, int[] area,
+                           int[] proveedor, byte[] estado, byte[] tipoEspacio, int[] fechaInicio, int[] fechaFin,
+                           int[] mesCreacion, double[] precio, double[] metros, int mesMinimo, int mesMaximo) {
+        this.generadaEn = generadaEn;
+        this.filas = filas;
+        this.tiendas = tiendas;
+        this.areas = areas;
+        this.proveedorIds = proveedorIds;
+        this.proveedorNombres = proveedorNombres;
+        this.tienda = tienda;
+        this.area = area;
+        this.proveedor = proveedor;
+        this.estado = estado;
+        this.tipoEspacio = tipoEspacio;
+        this.fechaInicio = fechaInicio;
+        this.fechaFin = fechaFin;
+        this.mesCreacion = mesCreacion;
+        this.precio = precio;
+        this.metros = metros;
+        this.mesMinimo = mesMinimo;
+        this.mesMaximo = mesMaximo;
+    }
+
+    public LocalDateTime getGeneradaEn() {
+        return generadaEn;
+    }
+
+    public int getFilas() {
+        return filas;
+    }
+
+    /**
+     * Ejecuta una consulta de agrupación con filtros sobre la instantánea
+     */
+    public ResultadoAnalitico consultar(ConsultaAnalitica consulta) {
+        long inicio = System.nanoTime();
+        Filtro filtro = new Filtro(consulta);
+        DimensionAnalitica dimension = consulta.agruparPor();
+        int grupos = cardinalidad(dimension);
+
+        Acumulador total;
+        if (filtro.vacio || filas == 0) {
+            total = new Acumulador(grupos);
+        } else {
+            int bloques = (filas + TAMANO_BLOQUE - 1) / TAMANO_BLOQUE;
+            total = IntStream.range(0, bloques)
+                    .parallel()
+                    .mapToObj(b -> escanear(b * TAMANO_BLOQUE, Math.min(filas, (b + 1) * TAMANO_BLOQUE),
+                            filtro, dimension, grupos))
+                    .reduce(Acumulador::combinar)
+                    .orElseGet(() -> new Acumulador(grupos));
+        }
+
+        List<ResultadoAnalitico.Grupo> resultado = new ArrayList<>();
+        for (int g = 0; g < grupos; g++) {
+            if (total.formularios[g] > 0) {
+                resultado.add(new ResultadoAnalitico.Grupo(clave(dimension, g), etiqueta(dimension, g),
+                        total.formularios[g], total.precio[g], total.metros[g]));
+            }
+        }
+        if (dimension != DimensionAnalitica.MES) {
+            resultado.sort(Comparator.comparingLong(ResultadoAnalitico.Grupo::formularios).reversed()
+                    .thenComparing(ResultadoAnalitico.Grupo::etiqueta));
+        }
+        return new ResultadoAnalitico(dimension, generadaEn, filas, (System.nanoTime() - inicio) / 1_000, resultado);
+    }
+
+    private Acumulador escanear(int desde, int hasta, Filtro filtro, DimensionAnalitica dimension, int grupos) {
+        Acumulador acumulador = new Acumulador(grupos);
+        int[] columnaEntera = switch (dimension) {
+            case TIENDA -> tienda;
+            case AREA -> area;
+            case PROVEEDOR -> proveedor;
+            case MES -> mesCreacion;
+            default -> null;
+        };
+        byte[] columnaOrdinal = dimension == DimensionAnalitica.ESTADO ? estado : tipoEspacio;
+        int desplazamiento = dimension == DimensionAnalitica.MES ? mesMinimo : 0;
+
+        for (int i = desde; i < hasta; i++) {
+            if (!filtro.acepta(i)) {
+                continue;
+            }
+            int g = columnaEntera != null ? columnaEntera[i] - desplazamiento : columnaOrdinal[i];
+            acumulador.formularios[g]++;
+            double p = precio[i];
+            if (!Double.isNaN(p)) {
+                acumulador.precio[g] += p;
+            }
+            double m = metros[i];
+            if (!Double.isNaN(m)) {
+                acumulador.metros[g] += m;
+            }
+        }
+        return acumulador;
+    }
+
+    private int cardinalidad(DimensionAnalitica dimension) {
+        return switch (dimension) {
+            case TIENDA -> tiendas.length;
+            case AREA -> areas.length;
+            case PROVEEDOR -> proveedorIds.length;
+            case TIPO_ESPACIO -> TIPOS_ESPACIO.length;
+            case ESTADO -> ESTADOS.length;
+            case MES -> filas == 0 ? 0 : mesMaximo - mesMinimo + 1;
+        };
+    }
+
+    private String clave(DimensionAnalitica dimension, int g) {
+        return switch (dimension) {
+            case TIENDA -> tiendas[g];
+            case AREA -> areas[g];
+            case PROVEEDOR -> String.valueOf(proveedorIds[g]);
+            case TIPO_ESPACIO -> TIPOS_ESPACIO[g].name();
+            case ESTADO -> ESTADOS[g].name();
+            case MES -> mesDesdeCodigo(mesMinimo + g).toString();
+        };
+    }
+
+    private String etiqueta(DimensionAnalitica dimension, int g) {
+        return switch (dimension) {
+            case PROVEEDOR -> proveedorNombres[g];
+            case TIPO_ESPACIO -> TIPOS_ESPACIO[g].getDescripcion();
+            default -> clave(dimension, g);
+        };
+    }
+
+    static int codigoMes(YearMonth mes) {
+        return mes.getYear() * 12 + mes.getMonthValue() - 1;
+    }
+
+    static YearMonth mesDesdeCodigo(int codigo) {
+        return YearMonth.of(Math.floorDiv(codigo, 12), Math.floorMod(codigo, 12) + 1);
+    }
+
+    private static <E extends Enum<E>> int mascara(Set<E> valores) {
+        if (valores == null || valores.isEmpty()) {
+            return -1;
+        }
+        int mascara = 0;
+        for (E valor : valores) {
+            mascara |= 1 << valor.ordinal();
+        }
+        return mascara;
+    }
+
+    /**
+     * Filtros de la consulta traducidos a códigos de diccionario y máscaras de bits
+     */
+    private final class Filtro {
+
+        private final boolean[] tiendasPermitidas;
+        private final boolean[] proveedoresPermitidos;
+        private final int mascaraEstados;
+        private final int mascaraTipos;
+        private final int mesDesde;
+        private final int mesHasta;
+        private final int vigenteEn;
+        private final boolean vacio;
+
+        private Filtro(ConsultaAnalitica consulta) {
+            boolean sinCoincidencias = false;
+
+            if (consulta.tiendas() != null && !consulta.tiendas().isEmpty()) {
+                tiendasPermitidas = new boolean[tiendas.length];
+                boolean alguna = false;
+                for (int t = 0; t < tiendas.length; t++) {
+                    tiendasPermitidas[t] = consulta.tiendas().contains(tiendas[t]);
+                    alguna |= tiendasPermitidas[t];
+                }
+                sinCoincidencias = !alguna;
+            } else {
+                tiendasPermitidas = null;
+            }
+
+            if (consulta.proveedores() != null && !consulta.proveedores().isEmpty()) {
+                proveedoresPermitidos = new boolean[proveedorIds.length];
+                boolean alguno = false;
+                for (int p = 0; p < proveedorIds.length; p++) {
+                    proveedoresPermitidos[p] = consulta.proveedores().contains(proveedorIds[p]);
+                    alguno |= proveedoresPermitidos[p];
+                }
+                sinCoincidencias |= !alguno;
+            } else {
+                proveedoresPermitidos = null;
+            }
+
+            mascaraEstados = mascara(consulta.estados());
+            mascaraTipos = mascara(consulta.tiposEspacio());
+            mesDesde = consulta.desde() != null ? codigoMes(consulta.desde()) : Integer.MIN_VALUE;
+            mesHasta = consulta.hasta() != null ? codigoMes(consulta.hasta()) : Integer.MAX_VALUE;
+            vigenteEn = consulta.vigenteEn() != null ? (int) consulta.vigenteEn().toEpochDay() : Integer.MIN_VALUE;
+            vacio = sinCoincidencias || mesDesde > mesHasta;
+        }
+
+        private boolean acepta(int i) {
+            return (tiendasPermitidas == null || tiendasPermitidas[tienda[i]])
+                    && (proveedoresPermitidos == null || proveedoresPermitidos[proveedor[i]])
+                    && (mascaraEstados & (1 << estado[i])) != 0
+                    && (mascaraTipos & (1 << tipoEspacio[i])) != 0
+                    && mesCreacion[i] >= mesDesde && mesCreacion[i] <= mesHasta
+                    && (vigenteEn == Integer.MIN_VALUE || (fechaInicio[i] <= vigenteEn && vigenteEn <= fechaFin[i]));
+        }
+    }
+
+    /**
+     * Totales parciales de un bloque de filas
+     */
+    private static final class Acumulador {
+
+        private final long[] formularios;
+        private final double[] precio;
+        private final double[] metros;
+
+        private Acumulador(int grupos) {
+            this.formularios = new long[grupos];
+            this.precio = new double[grupos];
+            this.metros = new double[grupos];
+        }
+
+        private Acumulador combinar(Acumulador otro) {
+            for (int g = 0; g < formularios.length; g++) {
+                formularios[g] += otro.formularios[g];
+                precio[g] += otro.precio[g];
+                metros[g] += otro.metros[g];
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.merca.merca.analytics;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Resultado de una consulta analítica
+ *
+ * @param instantaneaGeneradaEn momento en que se leyeron los datos consultados
+ * @param filasEscaneadas       filas de la instantánea recorridas
+ * @param duracionMicros        tiempo de la consulta en microsegundos
+ */
+public record ResultadoAnalitico(DimensionAnalitica agrupadoPor,
+                                 LocalDateTime instantaneaGeneradaEn,
+                                 int filasEscaneadas,
+                                 long duracionMicros,
+                                 List<Grupo> grupos) {
+
+    /**
+     * Totales de un grupo. Los importes y metros ignoran los formularios sin ese dato.
+     */
+    public record Grupo(String clave, String etiqueta, long formularios, double precioTotal, double metrosTotales) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.merca.merca.config;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * El pool de cálculo de contraseñas está lleno: se rechaza la operación de inmediato
+ * en lugar de encolar más trabajo
+ */
+public class AutenticacionSaturadaException extends AuthenticationServiceException {
+
+    public AutenticacionSaturadaException(String mensaje) {
+        super(mensaje);
+    }
+}
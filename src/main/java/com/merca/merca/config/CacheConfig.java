@@ -0,0 +1,38 @@
+package com.merca.merca.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caché en memoria (Caffeine) de datos de referencia que casi no cambian.
+ * Las entradas expiran por tamaño y tiempo, y los servicios las invalidan al modificar
+ * los datos. Las invalidaciones se aplican al confirmar la transacción, para que una
+ * lectura concurrente no vuelva a guardar el valor anterior.
+ * Los aciertos y fallos se publican como métricas {@code cache.gets} en /actuator/metrics.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Opciones de proveedores activos para listas desplegables
+     */
+    public static final String PROVEEDORES_ACTIVOS = "proveedoresActivos";
+
+    /**
+     * Opción (id, nombre, RFC) de un proveedor por id
+     */
+    public static final String OPCIONES_PROVEEDOR = "opcionesProveedor";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${app.cache.especificacion}") String especificacion) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(PROVEEDORES_ACTIVOS, OPCIONES_PROVEEDOR);
+        cacheManager.setCacheSpecification(especificacion);
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,83 @@
+package com.merca.merca.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ejecuta el cálculo de contraseñas (BCrypt) en un pool propio y acotado.
+ * <p>
+ * Como mucho hay tantos cálculos simultáneos como hilos tiene el pool, así que una ola
+ * de logins solo ocupa esos núcleos. El hilo de la petición espera el resultado sin
+ * ocupar CPU, pero sigue siendo un hilo de Tomcat retenido: por eso la cola es corta y,
+ * si también está llena, la operación se rechaza al momento con
+ * {@link AutenticacionSaturadaException} en lugar de retener más hilos.
+ */
+public class CodificadorPasswordAcotado implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegado;
+
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong rechazados = new AtomicLong();
+
+    public CodificadorPasswordAcotado(PasswordEncoder delegado, ThreadPoolExecutor executor) {
+        this.delegado = delegado;
+        this.executor = executor;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return ejecutar(() -> delegado.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return ejecutar(() -> delegado.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegado.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T ejecutar(Callable<T> calculo) {
+        Future<T> resultado;
+        try {
+            resultado = executor.submit(calculo);
+        } catch (RejectedExecutionException e) {
+            rechazados.incrementAndGet();
+            throw new AutenticacionSaturadaException("Demasiadas solicitudes de autenticación; intente de nuevo");
+        }
+        try {
+            return resultado.get();
+        } catch (InterruptedException e) {
+            resultado.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Se interrumpió el cálculo de la contraseña", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new RuntimeException("Error al calcular la contraseña", e.getCause());
+        }
+    }
+
+    /**
+     * Operaciones rechazadas por saturación desde el arranque
+     */
+    public long getRechazados() {
+        return rechazados.get();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
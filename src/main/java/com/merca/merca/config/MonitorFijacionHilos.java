@@ -0,0 +1,87 @@
+package com.merca.merca.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Detecta hilos virtuales fijados a su hilo portador (evento JFR {@code jdk.VirtualThreadPinned},
+ * Java 21+). Un hilo virtual se fija cuando se bloquea, por ejemplo esperando a la base de datos,
+ * dentro de un bloque {@code synchronized}: mientras tanto el portador no atiende otras peticiones.
+ * <p>
+ * Cada evento que supera el umbral se registra en el log con la primera línea de nuestro código
+ * en la pila (normalmente un servicio {@code @Transactional}) y se cuenta en la métrica
+ * {@code hilos.virtuales.fijados}, etiquetada con esa clase.
+ */
+@Component
+@ConditionalOnProperty(name = "app.hilos-virtuales.monitor-fijacion", havingValue = "true")
+public class MonitorFijacionHilos {
+
+    private static final Logger log = LoggerFactory.getLogger(MonitorFijacionHilos.class);
+
+    private static final String EVENTO = "jdk.VirtualThreadPinned";
+
+    private static final String PAQUETE_PROPIO = "com.merca.merca.";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.hilos-virtuales.umbral-fijacion-ms:20}")
+    private long umbralMs;
+
+    private RecordingStream grabacion;
+
+    @PostConstruct
+    public void iniciar() {
+        if (Runtime.version().feature() < 21) {
+            log.warn("El monitor de fijación de hilos virtuales requiere Java 21 o superior (se ejecuta en Java {})",
+                    Runtime.version().feature());
+            return;
+        }
+        grabacion = new RecordingStream();
+        grabacion.enable(EVENTO).withThreshold(Duration.ofMillis(umbralMs)).withStackTrace();
+        grabacion.onEvent(EVENTO, this::registrar);
+        grabacion.startAsync();
+        log.info("Monitor de fijación de hilos virtuales activo (umbral {} ms)", umbralMs);
+    }
+
+    void registrar(RecordedEvent evento) {
+        List<RecordedFrame> marcos = evento.getStackTrace() != null ? evento.getStackTrace().getFrames() : List.of();
+        String clase = marcos.stream()
+                .map(marco -> marco.getMethod().getType().getName())
+                .filter(nombre -> nombre.startsWith(PAQUETE_PROPIO))
+                .findFirst()
+                .orElse("externo");
+        Counter.builder("hilos.virtuales.fijados")
+                .description("Hilos virtuales fijados a su portador más tiempo que el umbral")
+                .tag("clase", clase)
+                .register(meterRegistry)
+                .increment();
+        log.warn("Hilo virtual fijado {} ms en {}:\n{}", evento.getDuration().toMillis(), clase,
+                marcos.stream().limit(15)
+                        .map(marco -> "    at " + marco.getMethod().getType().getName() + "."
+                                + marco.getMethod().getName() + ":" + marco.getLineNumber())
+                        .collect(Collectors.joining("\n")));
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (grabacion != null) {
+            grabacion.close();
+        }
+    }
+}
@@ -1,30 +1,107 @@
 package com.merca.merca.config;
 
+import com.merca.merca.dto.UsuarioPrincipal;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import org.springframework.security.web.authentication.ExceptionMappingAuthenticationFailureHandler;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+import org.springframework.session.security.SpringSessionBackedSessionRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
 public class SecurityConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+
+    /**
+     * BCrypt con la fuerza configurada, calculado en un pool acotado (ver {@link CodificadorPasswordAcotado}).
+     * Por omisión el pool usa la mitad de los núcleos, para que una ola de logins deje CPU al resto.
+     * Cada cálculo en curso o en cola retiene un hilo de Tomcat, así que hilos + cola debe quedar
+     * muy por debajo de server.tomcat.threads.max.
+     * <p>
+     * El pool publica sus métricas como executor.* con name=password y los rechazos como
+     * password.rechazados. Cambiar la fuerza no invalida los hashes existentes.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.password.bcrypt-fuerza:10}") int fuerza,
+                                           @Value("${app.password.hilos:0}") int hilos,
+                                           @Value("${app.password.cola:20}") int cola,
+                                           @Value("${server.tomcat.threads.max:200}") int hilosTomcat,
+                                           MeterRegistry meterRegistry) {
+        int tamanoPool = hilos > 0 ? hilos : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        if (tamanoPool + cola > hilosTomcat / 2) {
+            log.warn("El pool de contraseñas ({} hilos + {} en cola) puede retener más de la mitad de los {} hilos de Tomcat",
+                    tamanoPool, cola, hilosTomcat);
+        }
+        AtomicInteger numeroHilo = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(tamanoPool, tamanoPool, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(cola), tarea -> {
+                    Thread hilo = new Thread(tarea, "password-" + numeroHilo.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        new ExecutorServiceMetrics(executor, "password", Tags.empty()).bindTo(meterRegistry);
+
+        CodificadorPasswordAcotado codificador = new CodificadorPasswordAcotado(new BCryptPasswordEncoder(fuerza), executor);
+        FunctionCounter.builder("password.rechazados", codificador, CodificadorPasswordAcotado::getRechazados)
+                .description("Cálculos de contraseña rechazados por pool saturado")
+                .register(meterRegistry);
+        return codificador;
     }
 
+    /**
+     * Login contra los usuarios de la base de datos. Tras verificar la contraseña, el principal
+     * que se guarda en la sesión (y por lo tanto en spring_session_attributes) va sin el hash.
+     * <p>
+     * El proveedor se registra solo en este AuthenticationManager, que la cadena de filtros usa
+     * directamente: sin padre global, un login fallido no se vuelve a verificar con el proveedor
+     * que Spring Security arma por su cuenta sobre el UserDetailsService.
+     */
     @Bean
-    public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
-        return config.getAuthenticationManager();
+    public AuthenticationManager authenticationManager(UserDetailsService userDetailsService,
+                                                       PasswordEncoder passwordEncoder) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider() {
+            @Override
+            protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+                                                                 UserDetails user) {
+                Object principalSesion = principal instanceof UsuarioPrincipal usuario ? usuario.sinPassword() : principal;
+                return super.createSuccessAuthentication(principalSesion, authentication, user);
+            }
+        };
+        provider.setUserDetailsService(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder);
+        return new ProviderManager(provider);
     }
 
     @Bean
@@ -32,13 +109,40 @@ public class SecurityConfig {
         return new CustomAuthenticationSuccessHandler();
     }
 
+    /**
+     * Credenciales incorrectas van a /login?error; un pool de contraseñas saturado, a /login?saturado
+     */
+    @Bean
+    public AuthenticationFailureHandler authenticationFailureHandler() {
+        ExceptionMappingAuthenticationFailureHandler handler = new ExceptionMappingAuthenticationFailureHandler();
+        handler.setDefaultFailureUrl("/login?error=true");
+        handler.setExceptionMappings(Map.of(AutenticacionSaturadaException.class.getName(), "/login?saturado=true"));
+        return handler;
+    }
+
+    /**
+     * Registro de sesiones sobre el almacén compartido (PostgreSQL): el límite de una sesión
+     * por usuario se respeta aunque cada sesión viva en una instancia distinta
+     */
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public <S extends Session> SpringSessionBackedSessionRegistry<S> sessionRegistry(
+            FindByIndexNameSessionRepository<S> sessionRepository) {
+        return new SpringSessionBackedSessionRegistry<>(sessionRepository);
+    }
+
+    @Bean
+    public SecurityFilterChain filterChain(HttpSecurity http, SessionRegistry sessionRegistry,
+                                           AuthenticationManager authenticationManager) throws Exception {
         http
+            .authenticationManager(authenticationManager)
             .authorizeHttpRequests(authz -> authz
                 // Recursos públicos
                 .requestMatchers("/css/**", "/js/**", "/images/**", "/webjars/**").permitAll()
                 .requestMatchers("/login", "/error", "/favicon.ico").permitAll()
+                .requestMatchers("/actuator/health").permitAll()
+                
+                // Métricas y cachés de la aplicación
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 
                 // Rutas de administrador
                 .requestMatchers("/admin/**").hasRole("ADMIN")
@@ -50,7 +154,7 @@ public class SecurityConfig {
                 .requestMatchers("/tienda/**").hasAnyRole("ADMIN", "COMERCIAL", "TIENDA")
                 
                 // Rutas de proveedores - acceso según rol
-                .requestMatchers("/proveedores/nuevo", "/proveedores/*/editar", "/proveedores/*/eliminar")
+                .requestMatchers("/proveedores/nuevo", "/proveedores/importar", "/proveedores/*/editar", "/proveedores/*/eliminar")
                     .hasAnyRole("ADMIN", "COMERCIAL")
                 .requestMatchers("/proveedores/**").hasAnyRole("ADMIN", "COMERCIAL", "TIENDA")
                 
@@ -68,7 +172,7 @@ public class SecurityConfig {
                 .loginPage("/login")
                 .loginProcessingUrl("/login")
                 .successHandler(customAuthenticationSuccessHandler())
-                .failureUrl("/login?error=true")
+                .failureHandler(authenticationFailureHandler())
                 .usernameParameter("username")
                 .passwordParameter("password")
                 .permitAll()
@@ -82,6 +186,7 @@ public class SecurityConfig {
             )
             .sessionManagement(session -> session
                 .maximumSessions(1)
+                .sessionRegistry(sessionRegistry)
                 .maxSessionsPreventsLogin(false)
                 .expiredUrl("/login?expired=true")
             )
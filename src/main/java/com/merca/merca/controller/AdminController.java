@@ -1,14 +1,24 @@
 package com.merca.merca.controller;
 
+import com.merca.merca.dto.DashboardAdmin;
+import com.merca.merca.dto.ReporteGeneral;
+import com.merca.merca.entity.Usuario;
+import com.merca.merca.service.DashboardService;
+import com.merca.merca.service.EstadisticaService;
 import com.merca.merca.service.FormularioService;
+import com.merca.merca.service.PaginaKeyset;
 import com.merca.merca.service.ProveedorService;
+import com.merca.merca.service.ReporteService;
 import com.merca.merca.service.UsuarioService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 @Controller
 @RequestMapping("/admin")
@@ -24,31 +34,58 @@ public class AdminController {
     @Autowired
     private FormularioService formularioService;
 
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private ReporteService reporteService;
+
+    @Autowired
+    private EstadisticaService estadisticaService;
+
     @GetMapping("/dashboard")
     public String dashboard(Model model) {
-        // Estadísticas generales para el administrador
-        model.addAttribute("totalUsuarios", usuarioService.obtenerTodosLosUsuarios().size());
-        model.addAttribute("totalProveedores", proveedorService.obtenerTodosLosProveedores().size());
-        model.addAttribute("totalFormularios", formularioService.obtenerTodosLosFormularios().size());
-        
-        // Datos básicos para el dashboard
-        model.addAttribute("proveedores", proveedorService.obtenerProveedoresActivosOrdenados());
-        model.addAttribute("formularios", formularioService.obtenerTodosLosFormularios());
+        // Estadísticas generales y últimos registros para el administrador
+        DashboardAdmin dashboard = dashboardService.obtenerDashboardAdmin();
+        model.addAttribute("totalUsuarios", dashboard.totalUsuarios());
+        model.addAttribute("totalProveedores", dashboard.totalProveedores());
+        model.addAttribute("totalFormularios", dashboard.totalFormularios());
+        model.addAttribute("proveedores", dashboard.proveedoresRecientes());
+        model.addAttribute("formularios", dashboard.formulariosRecientes());
         
         return "admin/dashboard";
     }
+
+    /**
+     * Reparación manual de los contadores de estadísticas a partir de las tablas
+     */
+    @PostMapping("/estadisticas/recalcular")
+    public String recalcularEstadisticas(RedirectAttributes redirectAttributes) {
+        if (estadisticaService.reconstruir()) {
+            redirectAttributes.addFlashAttribute("success", "Estadísticas recalculadas exitosamente");
+        } else {
+            redirectAttributes.addFlashAttribute("error", "La tabla de estadísticas está ocupada; intente de nuevo");
+        }
+        return "redirect:/admin/dashboard";
+    }
     
     @GetMapping("/usuarios")
-    public String usuarios(Model model) {
-        model.addAttribute("usuarios", usuarioService.obtenerTodosLosUsuarios());
+    public String usuarios(@RequestParam(value = "despues", required = false) String despues,
+                           @RequestParam(value = "antes", required = false) String antes,
+                           Model model) {
+        PaginaKeyset<Usuario> pagina = usuarioService.obtenerPaginaUsuarios(despues, antes);
+        model.addAttribute("usuarios", pagina.contenido());
+        model.addAttribute("pagina", pagina);
         return "admin/usuarios";
     }
     
     @GetMapping("/reportes")
     public String reportes(Model model) {
         // Datos para reportes
-        model.addAttribute("proveedores", proveedorService.obtenerTodosLosProveedores());
-        model.addAttribute("formularios", formularioService.obtenerTodosLosFormularios());
+        ReporteGeneral reporte = reporteService.generarReporteGeneral();
+        model.addAttribute("reporte", reporte);
+        model.addAttribute("proveedores", reporte.proveedoresRecientes());
+        model.addAttribute("formularios", reporte.formulariosRecientes());
         return "admin/reportes";
     }
 }
@@ -0,0 +1,50 @@
+package com.merca.merca.controller;
+
+import com.merca.merca.analytics.AnaliticaService;
+import com.merca.merca.analytics.ConsultaAnalitica;
+import com.merca.merca.analytics.DimensionAnalitica;
+import com.merca.merca.analytics.ResultadoAnalitico;
+import com.merca.merca.entity.Formulario;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Consultas analíticas de formularios en JSON, resueltas sobre la instantánea en memoria
+ */
+@RestController
+@RequestMapping("/admin/analitica")
+@PreAuthorize("hasRole('ADMIN')")
+public class AnaliticaController {
+
+    @Autowired
+    private AnaliticaService analiticaService;
+
+    @GetMapping("/formularios")
+    public ResultadoAnalitico formularios(@RequestParam(value = "agrupar", defaultValue = "ESTADO") DimensionAnalitica agrupar,
+                                          @RequestParam(value = "tienda", required = false) List<String> tiendas,
+                                          @RequestParam(value = "proveedor", required = false) List<Long> proveedores,
+                                          @RequestParam(value = "estado", required = false) List<Formulario.Estado> estados,
+                                          @RequestParam(value = "tipoEspacio", required = false) List<Formulario.TipoEspacio> tipos,
+                                          @RequestParam(value = "desde", required = false) YearMonth desde,
+                                          @RequestParam(value = "hasta", required = false) YearMonth hasta,
+                                          @RequestParam(value = "vigenteEn", required = false)
+                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate vigenteEn) {
+        return analiticaService.consultar(new ConsultaAnalitica(agrupar, conjunto(tiendas), conjunto(proveedores),
+                conjunto(estados), conjunto(tipos), desde, hasta, vigenteEn));
+    }
+
+    private static <T> Set<T> conjunto(List<T> valores) {
+        return valores != null ? new HashSet<>(valores) : null;
+    }
+}
@@ -0,0 +1,37 @@
+package com.merca.merca.controller;
+
+import com.merca.merca.dto.ProveedorOpcion;
+import com.merca.merca.index.IndiceAutocompletado;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Sugerencias en JSON para los campos de proveedor y tienda de los formularios,
+ * resueltas con el índice de prefijos en memoria
+ */
+@RestController
+@RequestMapping("/autocompletar")
+public class AutocompletadoController {
+
+    private static final int LIMITE_MAXIMO = 50;
+
+    @Autowired
+    private IndiceAutocompletado indiceAutocompletado;
+
+    @GetMapping("/proveedores")
+    public List<ProveedorOpcion> proveedores(@RequestParam("q") String texto,
+                                             @RequestParam(value = "limite", defaultValue = "10") int limite) {
+        return indiceAutocompletado.buscarProveedores(texto, Math.min(limite, LIMITE_MAXIMO));
+    }
+
+    @GetMapping("/tiendas")
+    public List<String> tiendas(@RequestParam("q") String texto,
+                                @RequestParam(value = "limite", defaultValue = "10") int limite) {
+        return indiceAutocompletado.buscarTiendas(texto, Math.min(limite, LIMITE_MAXIMO));
+    }
+}
@@ -1,24 +1,40 @@
 package com.merca.merca.controller;
 
+import com.merca.merca.dto.FormularioResumen;
+import com.merca.merca.dto.ProveedorOpcion;
+import com.merca.merca.dto.UsuarioPrincipal;
+import com.merca.merca.dto.VersionContenido;
+import com.merca.merca.dto.VersionFormulario;
 import com.merca.merca.entity.Formulario;
 import com.merca.merca.entity.Proveedor;
 import com.merca.merca.entity.Usuario;
+import com.merca.merca.service.ConsultasParalelas;
+import com.merca.merca.service.ExportacionFormularioService;
 import com.merca.merca.service.FormularioService;
+import com.merca.merca.service.PaginaKeyset;
 import com.merca.merca.service.ProveedorService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.nio.charset.StandardCharsets;
+
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Controller
@@ -31,6 +47,15 @@ public class FormularioController {
     @Autowired
     private ProveedorService proveedorService;
 
+    @Autowired
+    private ExportacionFormularioService exportacionFormularioService;
+
+    @Autowired
+    private ConsultasParalelas consultasParalelas;
+
+    @Autowired
+    private RespuestaCondicional respuestaCondicional;
+
     @GetMapping
     public String listarFormularios(@RequestParam(value = "tienda", required = false) String tienda,
                                    @RequestParam(value = "proveedor", required = false) Long proveedorId,
@@ -39,46 +64,46 @@ public class FormularioController {
                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
                                    @RequestParam(value = "fechaFin", required = false) 
                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
-                                   @AuthenticationPrincipal Usuario usuario,
+                                   @RequestParam(value = "despues", required = false) String despues,
+                                   @RequestParam(value = "antes", required = false) String antes,
+                                   @AuthenticationPrincipal UsuarioPrincipal usuario,
+                                   ServletWebRequest request,
                                    Model model) {
         
-        List<Formulario> formularios;
-        
-        // Convertir fechas a LocalDateTime si están presentes
-        LocalDateTime fechaInicioDateTime = null;
-        LocalDateTime fechaFinDateTime = null;
-        
-        if (fechaInicio != null) {
-            fechaInicioDateTime = fechaInicio.atStartOfDay();
+        // El listado muestra formularios y nombres de proveedores: cambia si cambia cualquiera de los dos
+        VersionContenido versionFormularios = formularioService.obtenerVersionListado();
+        VersionContenido versionProveedores = proveedorService.obtenerVersionListado();
+        if (respuestaCondicional.noModificado(request, model,
+                VersionContenido.posterior(versionFormularios.actualizado(), versionProveedores.actualizado()),
+                versionFormularios.total(), versionProveedores.total())) {
+            return null;
         }
         
-        if (fechaFin != null) {
-            fechaFinDateTime = fechaFin.atTime(LocalTime.MAX);
-        }
+        // Convertir fechas a LocalDateTime si están presentes
+        LocalDateTime desde = fechaInicio != null ? fechaInicio.atStartOfDay() : null;
+        LocalDateTime hasta = fechaFin != null ? fechaFin.atTime(LocalTime.MAX) : null;
         
-        Formulario.Estado estadoFiltro = null;
-        if (estado != null && !estado.isEmpty()) {
-            try {
-                estadoFiltro = Formulario.Estado.valueOf(estado);
-            } catch (IllegalArgumentException e) {
-                // Ignorar estado inválido
-            }
-        }
+        Formulario.Estado estadoFiltro = estadoFiltro(estado);
+        String tiendaFiltro = tiendaFiltro(tienda, usuario);
 
-        // Filtrar según el rol del usuario
-        if (usuario.getRol() == Usuario.Rol.TIENDA) {
-            // Los usuarios de tienda solo ven sus formularios o los de su tienda
-            String tiendaFiltro = usuario.getTiendaAsignada();
-            formularios = formularioService.buscarFormulariosConFiltros(tiendaFiltro, proveedorId, 
-                                                                        estadoFiltro, fechaInicioDateTime, fechaFinDateTime);
-        } else {
-            // Comercial y Admin ven todos los formularios con filtros
-            formularios = formularioService.buscarFormulariosConFiltros(tienda, proveedorId, 
-                                                                        estadoFiltro, fechaInicioDateTime, fechaFinDateTime);
-        }
+        // La búsqueda, la lista de proveedores y los conteos van en paralelo; los conteos salen de la
+        // tabla de estadísticas o, si se filtra por proveedor o fechas, del índice de bitmaps
+        ConsultasParalelas.Lote lote = consultasParalelas.nuevoLote();
+        ConsultasParalelas.Pendiente<PaginaKeyset<FormularioResumen>> busqueda = lote.enviar(
+                () -> formularioService.buscarFormulariosConFiltros(tiendaFiltro, proveedorId, estadoFiltro,
+                                                                    desde, hasta, despues, antes));
+        ConsultasParalelas.Pendiente<List<ProveedorOpcion>> proveedores =
+                lote.enviar(proveedorService::obtenerOpcionesProveedoresActivos);
+        ConsultasParalelas.Pendiente<Map<Formulario.Estado, Long>> conteosPendientes = lote.enviar(
+                () -> formularioService.contarFormulariosPorEstadoConFiltros(tiendaFiltro, proveedorId,
+                                                                             fechaInicio, fechaFin));
+        lote.esperar();
+        PaginaKeyset<FormularioResumen> pagina = busqueda.get();
+        Map<Formulario.Estado, Long> conteos = conteosPendientes.get();
 
-        model.addAttribute("formularios", formularios);
-        model.addAttribute("proveedores", proveedorService.obtenerProveedoresActivosOrdenados());
+        model.addAttribute("formularios", pagina.contenido());
+        model.addAttribute("pagina", pagina);
+        model.addAttribute("proveedores", proveedores.get());
         model.addAttribute("estados", Formulario.Estado.values());
         
         // Mantener filtros en el modelo
@@ -88,26 +113,84 @@ public class FormularioController {
         model.addAttribute("fechaInicio", fechaInicio);
         model.addAttribute("fechaFin", fechaFin);
         
-        // Estadísticas
-        model.addAttribute("totalActivos", formularioService.contarFormulariosPorEstado(Formulario.Estado.ACTIVO));
-        model.addAttribute("totalVencidos", formularioService.contarFormulariosPorEstado(Formulario.Estado.VENCIDO));
-        model.addAttribute("totalCancelados", formularioService.contarFormulariosPorEstado(Formulario.Estado.CANCELADO));
+        // Estadísticas de los formularios que cumplen los filtros
+        model.addAttribute("totalActivos", conteos.get(Formulario.Estado.ACTIVO));
+        model.addAttribute("totalVencidos", conteos.get(Formulario.Estado.VENCIDO));
+        model.addAttribute("totalCancelados", conteos.get(Formulario.Estado.CANCELADO));
 
         return "formularios/lista";
     }
 
+    /**
+     * Exporta a CSV los formularios que cumplen los mismos filtros del listado, sin paginar
+     */
+    @GetMapping("/export.csv")
+    public ResponseEntity<StreamingResponseBody> exportarFormularios(
+                                   @RequestParam(value = "tienda", required = false) String tienda,
+                                   @RequestParam(value = "proveedor", required = false) Long proveedorId,
+                                   @RequestParam(value = "estado", required = false) String estado,
+                                   @RequestParam(value = "fechaInicio", required = false)
+                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+                                   @RequestParam(value = "fechaFin", required = false)
+                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+                                   @AuthenticationPrincipal UsuarioPrincipal usuario) {
+        String tiendaFiltro = tiendaFiltro(tienda, usuario);
+        Formulario.Estado estadoFiltro = estadoFiltro(estado);
+        LocalDateTime desde = fechaInicio != null ? fechaInicio.atStartOfDay() : null;
+        LocalDateTime hasta = fechaFin != null ? fechaFin.atTime(LocalTime.MAX) : null;
+
+        StreamingResponseBody cuerpo = salida -> exportacionFormularioService.exportarCsv(
+                tiendaFiltro, proveedorId, estadoFiltro, desde, hasta, salida);
+
+        String archivo = "formularios-" + LocalDate.now() + ".csv";
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + archivo + "\"")
+                .body(cuerpo);
+    }
+
+    /**
+     * Los usuarios de tienda solo ven los formularios de su tienda; comercial y admin filtran libremente
+     */
+    private static String tiendaFiltro(String tienda, UsuarioPrincipal usuario) {
+        if (usuario.rol() == Usuario.Rol.TIENDA) {
+            return usuario.tiendaAsignada();
+        }
+        return tienda;
+    }
+
+    /**
+     * El formulario ya no lista todos los proveedores: se autocompleta y solo se
+     * necesita el nombre del proveedor elegido para mostrarlo al editar o re-mostrar
+     */
+    private void agregarProveedorSeleccionado(Formulario formulario, Model model) {
+        Long proveedorId = formulario.getProveedor() != null ? formulario.getProveedor().getId() : null;
+        model.addAttribute("proveedorElegido", proveedorService.obtenerOpcion(proveedorId).orElse(null));
+    }
+
+    private static Formulario.Estado estadoFiltro(String estado) {
+        if (estado != null && !estado.isEmpty()) {
+            try {
+                return Formulario.Estado.valueOf(estado);
+            } catch (IllegalArgumentException e) {
+                // Ignorar estado inválido
+            }
+        }
+        return null;
+    }
+
     @GetMapping("/nuevo")
-    public String mostrarFormularioNuevo(@AuthenticationPrincipal Usuario usuario, Model model) {
+    public String mostrarFormularioNuevo(@AuthenticationPrincipal UsuarioPrincipal usuario, Model model) {
         Formulario formulario = new Formulario();
         
         // Pre-llenar datos del usuario de tienda
-        if (usuario.getRol() == Usuario.Rol.TIENDA && usuario.getTiendaAsignada() != null) {
-            formulario.setCodigoTienda(usuario.getTiendaAsignada());
-            formulario.setNombreTienda(usuario.getTiendaAsignada()); // Se puede mejorar con un catálogo de tiendas
+        if (usuario.rol() == Usuario.Rol.TIENDA && usuario.tiendaAsignada() != null) {
+            formulario.setCodigoTienda(usuario.tiendaAsignada());
+            formulario.setNombreTienda(usuario.tiendaAsignada()); // Se puede mejorar con un catálogo de tiendas
         }
         
         model.addAttribute("formulario", formulario);
-        model.addAttribute("proveedores", proveedorService.obtenerProveedoresActivosOrdenados());
+        agregarProveedorSeleccionado(formulario, model);
         model.addAttribute("tiposEspacio", Formulario.TipoEspacio.values());
         
         return "formularios/formulario";
@@ -116,25 +199,23 @@ public class FormularioController {
     @PostMapping("/nuevo")
     public String crearFormulario(@Valid @ModelAttribute Formulario formulario,
                                  BindingResult result,
-                                 @AuthenticationPrincipal Usuario usuario,
+                                 @AuthenticationPrincipal UsuarioPrincipal usuario,
                                  Model model,
                                  RedirectAttributes redirectAttributes) {
         if (result.hasErrors()) {
-            model.addAttribute("proveedores", proveedorService.obtenerProveedoresActivosOrdenados());
+            agregarProveedorSeleccionado(formulario, model);
             model.addAttribute("tiposEspacio", Formulario.TipoEspacio.values());
             return "formularios/formulario";
         }
 
         try {
             // Asignar el usuario actual
-            formulario.setUsuario(usuario);
-            
-            formularioService.registrarFormulario(formulario);
+            formularioService.registrarFormulario(formulario, usuario.id());
             redirectAttributes.addFlashAttribute("success", "Formulario registrado exitosamente");
             return "redirect:/formularios";
         } catch (RuntimeException e) {
             model.addAttribute("error", e.getMessage());
-            model.addAttribute("proveedores", proveedorService.obtenerProveedoresActivosOrdenados());
+            agregarProveedorSeleccionado(formulario, model);
             model.addAttribute("tiposEspacio", Formulario.TipoEspacio.values());
             return "formularios/formulario";
         }
@@ -142,20 +223,29 @@ public class FormularioController {
 
     @GetMapping("/{id}")
     public String verFormulario(@PathVariable Long id, 
-                               @AuthenticationPrincipal Usuario usuario,
+                               @AuthenticationPrincipal UsuarioPrincipal usuario,
+                               ServletWebRequest request,
                                Model model) {
+        // Permisos y versión se resuelven sin cargar la entidad
+        Optional<VersionFormulario> version = formularioService.obtenerVersion(id);
+        if (version.isEmpty()) {
+            return "redirect:/formularios?error=Formulario no encontrado";
+        }
+        
+        // Verificar permisos de visualización
+        if (usuario.rol() == Usuario.Rol.TIENDA && 
+            !version.get().usuarioId().equals(usuario.id()) &&
+            !version.get().codigoTienda().equals(usuario.tiendaAsignada())) {
+            return "redirect:/formularios?error=No tienes permisos para ver este formulario";
+        }
+        
+        if (respuestaCondicional.noModificado(request, model, version.get().actualizado(), "formulario", id)) {
+            return null;
+        }
+        
         Optional<Formulario> formulario = formularioService.buscarPorId(id);
         if (formulario.isPresent()) {
-            Formulario form = formulario.get();
-            
-            // Verificar permisos de visualización
-            if (usuario.getRol() == Usuario.Rol.TIENDA && 
-                !form.getUsuario().getId().equals(usuario.getId()) &&
-                !form.getCodigoTienda().equals(usuario.getTiendaAsignada())) {
-                return "redirect:/formularios?error=No tienes permisos para ver este formulario";
-            }
-            
-            model.addAttribute("formulario", form);
+            model.addAttribute("formulario", formulario.get());
             model.addAttribute("puedeEditar", formularioService.puedeEditarFormulario(usuario, id));
             return "formularios/detalle";
         } else {
@@ -165,9 +255,9 @@ public class FormularioController {
 
     @GetMapping("/{id}/editar")
     public String mostrarFormularioEditar(@PathVariable Long id,
-                                         @AuthenticationPrincipal Usuario usuario,
+                                         @AuthenticationPrincipal UsuarioPrincipal usuario,
                                          Model model) {
-        Optional<Formulario> formulario = formularioService.buscarPorId(id);
+        Optional<Formulario> formulario = formularioService.buscarConProveedor(id);
         if (formulario.isPresent()) {
             Formulario form = formulario.get();
             
@@ -177,7 +267,7 @@ public class FormularioController {
             }
             
             model.addAttribute("formulario", form);
-            model.addAttribute("proveedores", proveedorService.obtenerProveedoresActivosOrdenados());
+            agregarProveedorSeleccionado(form, model);
             model.addAttribute("tiposEspacio", Formulario.TipoEspacio.values());
             model.addAttribute("estados", Formulario.Estado.values());
             return "formularios/formulario";
@@ -190,7 +280,7 @@ public class FormularioController {
     public String actualizarFormulario(@PathVariable Long id,
                                       @Valid @ModelAttribute Formulario formulario,
                                       BindingResult result,
-                                      @AuthenticationPrincipal Usuario usuario,
+                                      @AuthenticationPrincipal UsuarioPrincipal usuario,
                                       Model model,
                                       RedirectAttributes redirectAttributes) {
         
@@ -200,7 +290,7 @@ public class FormularioController {
         }
         
         if (result.hasErrors()) {
-            model.addAttribute("proveedores", proveedorService.obtenerProveedoresActivosOrdenados());
+            agregarProveedorSeleccionado(formulario, model);
             model.addAttribute("tiposEspacio", Formulario.TipoEspacio.values());
             model.addAttribute("estados", Formulario.Estado.values());
             return "formularios/formulario";
@@ -213,7 +303,7 @@ public class FormularioController {
             return "redirect:/formularios/" + id;
         } catch (RuntimeException e) {
             model.addAttribute("error", e.getMessage());
-            model.addAttribute("proveedores", proveedorService.obtenerProveedoresActivosOrdenados());
+            agregarProveedorSeleccionado(formulario, model);
             model.addAttribute("tiposEspacio", Formulario.TipoEspacio.values());
             model.addAttribute("estados", Formulario.Estado.values());
             return "formularios/formulario";
@@ -222,7 +312,7 @@ public class FormularioController {
 
     @PostMapping("/{id}/cancelar")
     public String cancelarFormulario(@PathVariable Long id,
-                                    @AuthenticationPrincipal Usuario usuario,
+                                    @AuthenticationPrincipal UsuarioPrincipal usuario,
                                     RedirectAttributes redirectAttributes) {
         if (!formularioService.puedeEditarFormulario(usuario, id)) {
             redirectAttributes.addFlashAttribute("error", "No tienes permisos para cancelar este formulario");
@@ -240,7 +330,7 @@ public class FormularioController {
 
     @PostMapping("/{id}/activar")
     public String activarFormulario(@PathVariable Long id,
-                                   @AuthenticationPrincipal Usuario usuario,
+                                   @AuthenticationPrincipal UsuarioPrincipal usuario,
                                    RedirectAttributes redirectAttributes) {
         if (!formularioService.puedeEditarFormulario(usuario, id)) {
             redirectAttributes.addFlashAttribute("error", "No tienes permisos para activar este formulario");
@@ -258,10 +348,10 @@ public class FormularioController {
 
     @PostMapping("/{id}/eliminar")
     public String eliminarFormulario(@PathVariable Long id,
-                                    @AuthenticationPrincipal Usuario usuario,
+                                    @AuthenticationPrincipal UsuarioPrincipal usuario,
                                     RedirectAttributes redirectAttributes) {
         // Solo administradores pueden eliminar
-        if (usuario.getRol() != Usuario.Rol.ADMINISTRADOR) {
+        if (usuario.rol() != Usuario.Rol.ADMINISTRADOR) {
             redirectAttributes.addFlashAttribute("error", "No tienes permisos para eliminar este formulario");
             return "redirect:/formularios/" + id;
         }
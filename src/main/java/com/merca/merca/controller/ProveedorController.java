@@ -1,6 +1,10 @@
 package com.merca.merca.controller;
 
+import com.merca.merca.dto.ResultadoImportacion;
+import com.merca.merca.dto.VersionContenido;
 import com.merca.merca.entity.Proveedor;
+import com.merca.merca.service.ImportacionProveedorService;
+import com.merca.merca.service.PaginaKeyset;
 import com.merca.merca.service.ProveedorService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,9 +12,14 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 
 @Controller
@@ -20,11 +29,25 @@ public class ProveedorController {
     @Autowired
     private ProveedorService proveedorService;
 
+    @Autowired
+    private ImportacionProveedorService importacionProveedorService;
+
+    @Autowired
+    private RespuestaCondicional respuestaCondicional;
+
     @GetMapping
     public String listarProveedores(@RequestParam(value = "buscar", required = false) String buscar,
                                    @RequestParam(value = "estado", required = false) String estado,
+                                   @RequestParam(value = "despues", required = false) String despues,
+                                   @RequestParam(value = "antes", required = false) String antes,
+                                   ServletWebRequest request,
                                    Model model) {
-        List<Proveedor> proveedores;
+        VersionContenido version = proveedorService.obtenerVersionListado();
+        if (respuestaCondicional.noModificado(request, model, version.actualizado(), version.total())) {
+            return null;
+        }
+
+        PaginaKeyset<Proveedor> pagina;
         
         Proveedor.Estado estadoFiltro = null;
         if (estado != null && !estado.isEmpty()) {
@@ -38,13 +61,14 @@ public class ProveedorController {
         }
 
         if (buscar != null && !buscar.trim().isEmpty()) {
-            proveedores = proveedorService.buscarProveedores(buscar, estadoFiltro);
+            pagina = PaginaKeyset.completa(proveedorService.buscarProveedores(buscar, estadoFiltro));
             model.addAttribute("buscar", buscar);
         } else {
-            proveedores = proveedorService.obtenerProveedoresPorEstado(estadoFiltro);
+            pagina = proveedorService.obtenerPaginaProveedoresPorEstado(estadoFiltro, despues, antes);
         }
 
-        model.addAttribute("proveedores", proveedores);
+        model.addAttribute("proveedores", pagina.contenido());
+        model.addAttribute("pagina", pagina);
         model.addAttribute("estado", estadoFiltro);
         model.addAttribute("estados", Proveedor.Estado.values());
         
@@ -84,9 +108,45 @@ public class ProveedorController {
         }
     }
 
+    @GetMapping("/importar")
+    public String mostrarImportacion() {
+        return "proveedores/importar";
+    }
+
+    /**
+     * Alta masiva desde un CSV; muestra el resultado de cada fila rechazada
+     */
+    @PostMapping("/importar")
+    public String importarProveedores(@RequestParam("archivo") MultipartFile archivo, Model model) {
+        if (archivo.isEmpty()) {
+            model.addAttribute("error", "Seleccione un archivo CSV");
+            return "proveedores/importar";
+        }
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(archivo.getInputStream(), StandardCharsets.UTF_8))) {
+            ResultadoImportacion resultado = importacionProveedorService.importarCsv(reader);
+            model.addAttribute("resultado", resultado);
+            if (resultado.getAceptadas() > 0) {
+                model.addAttribute("success", resultado.getAceptadas() + " proveedores registrados exitosamente");
+            }
+        } catch (IOException e) {
+            model.addAttribute("error", "No se pudo leer el archivo");
+        } catch (RuntimeException e) {
+            model.addAttribute("error", e.getMessage());
+        }
+        return "proveedores/importar";
+    }
+
     @GetMapping("/{id}")
-    public String verProveedor(@PathVariable Long id, Model model) {
-        Optional<Proveedor> proveedor = proveedorService.buscarPorId(id);
+    public String verProveedor(@PathVariable Long id, ServletWebRequest request, Model model) {
+        // La página también lista los formularios del proveedor: entran en la versión
+        Optional<VersionContenido> version = proveedorService.obtenerVersion(id);
+        if (version.isPresent() && respuestaCondicional.noModificado(request, model,
+                version.get().actualizado(), "proveedor", id, version.get().total())) {
+            return null;
+        }
+        Optional<Proveedor> proveedor = proveedorService.buscarConFormularios(id);
         if (proveedor.isPresent()) {
             model.addAttribute("proveedor", proveedor.get());
             return "proveedores/detalle";
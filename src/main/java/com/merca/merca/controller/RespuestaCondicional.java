@@ -0,0 +1,74 @@
+package com.merca.merca.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.ui.Model;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Peticiones GET condicionales (ETag y Last-Modified) para las páginas que las tabletas
+ * de tienda recargan constantemente. Si el navegador ya tiene la versión vigente se
+ * responde 304 sin armar el modelo ni pasar por Thymeleaf.
+ * <p>
+ * El ETag combina la versión del contenido con la sesión (la página lleva el token CSRF
+ * y el menú del usuario) y con la fecha del día (las páginas marcan lo que está por vencer).
+ */
+@Component
+public class RespuestaCondicional {
+
+    private final long margenMs;
+
+    /**
+     * Zona del día con el que se marcan los vencimientos
+     */
+    private final ZoneId zona;
+
+    public RespuestaCondicional(@Value("${app.condicional.margen-ms:10000}") long margenMs,
+                                @Value("${app.vencimiento.zona:America/Mexico_City}") ZoneId zona) {
+        this.margenMs = margenMs;
+        this.zona = zona;
+    }
+
+    /**
+     * Agrega los validadores a la respuesta y comprueba los del cliente.
+     *
+     * @param model       modelo recibido; si trae mensajes flash la página se genera completa
+     * @param actualizado fecha de la modificación más reciente de lo que muestra la página
+     * @param version     demás datos que identifican la versión (ids, totales, filtros)
+     * @return true si la respuesta ya es un 304: el controlador debe devolver null
+     */
+    public boolean noModificado(ServletWebRequest request, Model model, LocalDateTime actualizado,
+                                Object... version) {
+        if (!model.asMap().isEmpty()) {
+            return false;
+        }
+        // Una fecha muy reciente aún puede quedar por debajo de la de otra transacción que confirme
+        // después; hasta que pase el margen la página se genera completa y sin validadores
+        if (actualizado == null || actualizado.isAfter(LocalDateTime.now().minus(margenMs, ChronoUnit.MILLIS))) {
+            return false;
+        }
+
+        StringBuilder clave = new StringBuilder()
+                .append(actualizado).append('|')
+                .append(request.getSessionId()).append('|')
+                .append(LocalDate.now(zona));
+        for (Object parte : version) {
+            clave.append('|').append(parte);
+        }
+        String etag = "W/\"" + DigestUtils.md5DigestAsHex(clave.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+
+        // Se guarda en el navegador, pero siempre se revalida (Spring Security pondría no-store)
+        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+        long ultimaModificacion = actualizado.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return request.checkNotModified(etag, ultimaModificacion);
+    }
+}
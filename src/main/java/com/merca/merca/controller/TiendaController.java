@@ -1,7 +1,9 @@
 package com.merca.merca.controller;
 
+import com.merca.merca.dto.FormularioResumen;
+import com.merca.merca.dto.UsuarioPrincipal;
 import com.merca.merca.entity.Formulario;
-import com.merca.merca.entity.Usuario;
+import com.merca.merca.service.ConsultasParalelas;
 import com.merca.merca.service.FormularioService;
 import com.merca.merca.service.ProveedorService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,34 +26,36 @@ public class TiendaController {
     @Autowired
     private ProveedorService proveedorService;
 
+    @Autowired
+    private ConsultasParalelas consultasParalelas;
+
     @GetMapping("/dashboard")
-    public String dashboard(@AuthenticationPrincipal Usuario usuario, Model model) {
+    public String dashboard(@AuthenticationPrincipal UsuarioPrincipal usuario, Model model) {
         
         // Estadísticas específicas para la tienda del usuario
-        String tienda = usuario.getTiendaAsignada();
+        String tienda = usuario.tiendaAsignada();
         
         if (tienda != null) {
-            // Formularios activos de la tienda
-            List<Formulario> formulariosActivos = formularioService.obtenerFormulariosActivosPorTienda(tienda);
-            
-            // Formularios próximos a vencer (en los próximos 7 días)
-            List<Formulario> formulariosProximosAVencer = formularioService.obtenerFormulariosProximosAVencer(7);
-            
-            // Filtrar solo los de esta tienda
-            formulariosProximosAVencer = formulariosProximosAVencer.stream()
-                    .filter(f -> tienda.equals(f.getCodigoTienda()))
-                    .toList();
+            // Las dos consultas de formularios y los conteos (tabla de estadísticas) van en paralelo
+            ConsultasParalelas.Lote lote = consultasParalelas.nuevoLote();
+            ConsultasParalelas.Pendiente<List<FormularioResumen>> formulariosActivos =
+                    lote.enviar(() -> formularioService.obtenerResumenesActivosPorTienda(tienda));
+            // Formularios de esta tienda próximos a vencer (en los próximos 7 días)
+            ConsultasParalelas.Pendiente<List<FormularioResumen>> formulariosProximosAVencer =
+                    lote.enviar(() -> formularioService.obtenerResumenesProximosAVencerPorTienda(tienda, 7));
             
             // Estadísticas
-            long totalActivos = formularioService.contarFormulariosPorTiendaYEstado(tienda, Formulario.Estado.ACTIVO);
-            long totalVencidos = formularioService.contarFormulariosPorTiendaYEstado(tienda, Formulario.Estado.VENCIDO);
-            long totalCancelados = formularioService.contarFormulariosPorTiendaYEstado(tienda, Formulario.Estado.CANCELADO);
+            ConsultasParalelas.Pendiente<List<Long>> totales = lote.enviar(() -> List.of(
+                    formularioService.contarFormulariosPorTiendaYEstado(tienda, Formulario.Estado.ACTIVO),
+                    formularioService.contarFormulariosPorTiendaYEstado(tienda, Formulario.Estado.VENCIDO),
+                    formularioService.contarFormulariosPorTiendaYEstado(tienda, Formulario.Estado.CANCELADO)));
+            lote.esperar();
             
-            model.addAttribute("formulariosActivos", formulariosActivos);
-            model.addAttribute("formulariosProximosAVencer", formulariosProximosAVencer);
-            model.addAttribute("totalActivos", totalActivos);
-            model.addAttribute("totalVencidos", totalVencidos);
-            model.addAttribute("totalCancelados", totalCancelados);
+            model.addAttribute("formulariosActivos", formulariosActivos.get());
+            model.addAttribute("formulariosProximosAVencer", formulariosProximosAVencer.get());
+            model.addAttribute("totalActivos", totales.get().get(0));
+            model.addAttribute("totalVencidos", totales.get().get(1));
+            model.addAttribute("totalCancelados", totales.get().get(2));
             model.addAttribute("tienda", tienda);
         }
         
@@ -62,8 +66,8 @@ public class TiendaController {
     }
 
     @GetMapping("/formularios")
-    public String misFormularios(@AuthenticationPrincipal Usuario usuario, Model model) {
-        List<Formulario> formularios = formularioService.obtenerFormulariosPorUsuario(usuario);
+    public String misFormularios(@AuthenticationPrincipal UsuarioPrincipal usuario, Model model) {
+        List<Formulario> formularios = formularioService.obtenerFormulariosPorUsuario(usuario.id());
         model.addAttribute("formularios", formularios);
         model.addAttribute("usuario", usuario);
         return "tienda/mis-formularios";
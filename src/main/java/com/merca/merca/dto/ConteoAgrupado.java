@@ -0,0 +1,7 @@
+package com.merca.merca.dto;
+
+/**
+ * Fila de una consulta GROUP BY: el valor del grupo y cuántos registros tiene
+ */
+public record ConteoAgrupado<K>(K clave, long total) {
+}
@@ -0,0 +1,8 @@
+package com.merca.merca.dto;
+
+/**
+ * Número de formularios de un proveedor; se identifica por id porque dos proveedores
+ * pueden llamarse igual
+ */
+public record ConteoProveedor(Long proveedorId, String nombre, long total) {
+}
@@ -0,0 +1,15 @@
+package com.merca.merca.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Datos de la página de inicio del administrador
+ */
+public record DashboardAdmin(long totalUsuarios,
+                             long totalProveedores,
+                             long totalFormularios,
+                             List<ProveedorResumen> proveedoresRecientes,
+                             List<FormularioResumen> formulariosRecientes,
+                             LocalDateTime generadoEn) {
+}
@@ -0,0 +1,49 @@
+package com.merca.merca.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Distribución de registros entre grupos (estados, tipos de espacio, proveedores)
+ * con su porcentaje sobre el total, lista para mostrarse en un reporte.
+ */
+public record DistribucionReporte(List<Fila> filas, long total) {
+
+    /**
+     * Un grupo de la distribución
+     */
+    public record Fila(String clave, String etiqueta, long total, long porcentaje) {
+    }
+
+    /**
+     * Cantidad de registros del grupo, o cero si no aparece
+     */
+    public long cantidad(String clave) {
+        return filas.stream().filter(f -> f.clave().equals(clave)).mapToLong(Fila::total).findFirst().orElse(0);
+    }
+
+    /**
+     * Porcentaje entero del grupo sobre el total, o cero si no aparece
+     */
+    public long porcentaje(String clave) {
+        return filas.stream().filter(f -> f.clave().equals(clave)).mapToLong(Fila::porcentaje).findFirst().orElse(0);
+    }
+
+    /**
+     * Construye la distribución a partir de los conteos agrupados
+     *
+     * @param total    total sobre el que se calculan los porcentajes
+     * @param clave    texto que identifica cada grupo
+     * @param etiqueta texto que se muestra para cada grupo
+     */
+    public static <K> DistribucionReporte de(List<ConteoAgrupado<K>> conteos, long total,
+                                             Function<K, String> clave, Function<K, String> etiqueta) {
+        List<Fila> filas = new ArrayList<>(conteos.size());
+        for (ConteoAgrupado<K> conteo : conteos) {
+            long porcentaje = total > 0 ? conteo.total() * 100 / total : 0;
+            filas.add(new Fila(clave.apply(conteo.clave()), etiqueta.apply(conteo.clave()), conteo.total(), porcentaje));
+        }
+        return new DistribucionReporte(filas, total);
+    }
+}
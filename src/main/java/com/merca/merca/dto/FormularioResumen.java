@@ -0,0 +1,23 @@
+package com.merca.merca.dto;
+
+import com.merca.merca.entity.Formulario;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Vista de solo lectura de un formulario con las columnas que muestran los listados.
+ * No incluye observaciones ni la entidad del proveedor, solo su nombre.
+ */
+public record FormularioResumen(Long id,
+                                String nombreTienda,
+                                String codigoTienda,
+                                String proveedorNombre,
+                                String areaAsignada,
+                                Formulario.TipoEspacio tipoEspacio,
+                                LocalDate fechaInicio,
+                                LocalDate fechaFin,
+                                Formulario.Estado estado,
+                                Double precioAcordado,
+                                LocalDateTime fechaCreacion) {
+}
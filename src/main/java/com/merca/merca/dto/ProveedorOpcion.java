@@ -0,0 +1,13 @@
+package com.merca.merca.dto;
+
+import com.merca.merca.entity.Proveedor;
+
+/**
+ * Proveedor reducido a lo necesario para las listas desplegables y el autocompletado
+ */
+public record ProveedorOpcion(Long id, String nombre, String rfc) {
+
+    public static ProveedorOpcion de(Proveedor proveedor) {
+        return new ProveedorOpcion(proveedor.getId(), proveedor.getNombre(), proveedor.getRfc());
+    }
+}
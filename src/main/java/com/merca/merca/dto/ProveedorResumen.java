@@ -0,0 +1,16 @@
+package com.merca.merca.dto;
+
+import com.merca.merca.entity.Proveedor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Vista de solo lectura de un proveedor con las columnas que muestra el dashboard
+ */
+public record ProveedorResumen(Long id,
+                               String nombre,
+                               String rfc,
+                               String contactoPrincipal,
+                               Proveedor.Estado estado,
+                               LocalDateTime fechaRegistro) {
+}
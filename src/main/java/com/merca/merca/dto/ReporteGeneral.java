@@ -0,0 +1,14 @@
+package com.merca.merca.dto;
+
+import java.util.List;
+
+/**
+ * Datos del reporte general del administrador
+ */
+public record ReporteGeneral(DistribucionReporte proveedoresPorEstado,
+                             DistribucionReporte formulariosPorEstado,
+                             DistribucionReporte formulariosPorTipoEspacio,
+                             DistribucionReporte formulariosPorProveedor,
+                             List<ProveedorResumen> proveedoresRecientes,
+                             List<FormularioResumen> formulariosRecientes) {
+}
@@ -0,0 +1,34 @@
+package com.merca.merca.dto;
+
+import java.util.List;
+
+/**
+ * Reporte de una importación masiva de proveedores, con el resultado de cada fila del archivo
+ */
+public record ResultadoImportacion(List<Fila> filas, long duracionMs) {
+
+    /**
+     * Resultado de una fila; {@code numero} es la línea del archivo (la 1 es el encabezado)
+     */
+    public record Fila(int numero, String rfc, String nombre, boolean aceptada, List<String> errores) {
+    }
+
+    public int getTotal() {
+        return filas.size();
+    }
+
+    public long getAceptadas() {
+        return filas.stream().filter(Fila::aceptada).count();
+    }
+
+    public long getRechazadas() {
+        return getTotal() - getAceptadas();
+    }
+
+    /**
+     * Solo las filas rechazadas, que son las que el usuario necesita corregir
+     */
+    public List<Fila> getErrores() {
+        return filas.stream().filter(f -> !f.aceptada()).toList();
+    }
+}
@@ -0,0 +1,68 @@
+package com.merca.merca.dto;
+
+import com.merca.merca.entity.Usuario;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Usuario autenticado que se guarda en la sesión: solo los datos que usan los controladores
+ * y las plantillas, sin la entidad ni sus colecciones. El hash de la contraseña solo viaja
+ * mientras se verifica el login; a la sesión llega la copia de {@link #sinPassword()}.
+ */
+public record UsuarioPrincipal(Long id, String username, Usuario.Rol rol, String tiendaAsignada,
+                               boolean activo, String password) implements UserDetails {
+
+    public static UsuarioPrincipal de(Usuario usuario) {
+        return new UsuarioPrincipal(usuario.getId(), usuario.getUsername(), usuario.getRol(),
+                usuario.getTiendaAsignada(), Boolean.TRUE.equals(usuario.getActivo()), usuario.getPassword());
+    }
+
+    /**
+     * Copia sin el hash de la contraseña, para guardarla en la sesión
+     */
+    public UsuarioPrincipal sinPassword() {
+        return new UsuarioPrincipal(id, username, rol, tiendaAsignada, activo, null);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority(rol.getAuthority()));
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return activo;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return activo;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return activo;
+    }
+
+    /**
+     * Sin el hash de la contraseña, para que no termine en los logs
+     */
+    @Override
+    public String toString() {
+        return "UsuarioPrincipal[id=" + id + ", username=" + username + ", rol=" + rol + "]";
+    }
+}
@@ -0,0 +1,25 @@
+package com.merca.merca.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Versión de lo que muestra una página, para responder peticiones condicionales:
+ * la fecha de la modificación más reciente y el número de filas (las bajas no
+ * mueven la fecha, pero sí el total).
+ */
+public record VersionContenido(LocalDateTime actualizado, long total) {
+
+    /**
+     * Versión de un registro y de sus filas relacionadas; se queda con la fecha más reciente
+     */
+    public VersionContenido(LocalDateTime actualizado, LocalDateTime relacionadosActualizado, long total) {
+        this(posterior(actualizado, relacionadosActualizado), total);
+    }
+
+    public static LocalDateTime posterior(LocalDateTime a, LocalDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        return b != null && b.isAfter(a) ? b : a;
+    }
+}
@@ -0,0 +1,16 @@
+package com.merca.merca.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Versión del detalle de un formulario: la fecha de modificación más reciente entre
+ * el formulario y su proveedor, más los datos necesarios para validar el permiso de
+ * lectura sin cargar la entidad.
+ */
+public record VersionFormulario(Long usuarioId, String codigoTienda, LocalDateTime actualizado) {
+
+    public VersionFormulario(Long usuarioId, String codigoTienda, LocalDateTime formularioActualizado,
+                             LocalDateTime proveedorActualizado) {
+        this(usuarioId, codigoTienda, VersionContenido.posterior(formularioActualizado, proveedorActualizado));
+    }
+}
@@ -0,0 +1,44 @@
+package com.merca.merca.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Contador precalculado de una estadística (p. ej. formularios activos de una tienda).
+ * Las claves se arman en {@link com.merca.merca.service.EstadisticaService}.
+ */
+@Entity
+@Table(name = "estadisticas")
+public class Estadistica {
+
+    @Id
+    @Column(length = 150)
+    private String clave;
+
+    @Column(nullable = false)
+    private long total;
+
+    // Constructores
+    public Estadistica() {}
+
+    public Estadistica(String clave, long total) {
+        this.clave = clave;
+        this.total = total;
+    }
+
+    // Getters y Setters
+    public String getClave() {
+        return clave;
+    }
+
+    public void setClave(String clave) {
+        this.clave = clave;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+}
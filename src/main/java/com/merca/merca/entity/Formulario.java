@@ -10,10 +10,18 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "formularios")
+@NamedEntityGraph(name = Formulario.GRAFO_CON_PROVEEDOR, attributeNodes = @NamedAttributeNode("proveedor"))
+@EntityListeners(VencimientoFormularioListener.class)
 public class Formulario {
 
+    /**
+     * Grafo de carga que trae el proveedor en la misma consulta (para listados)
+     */
+    public static final String GRAFO_CON_PROVEEDOR = "Formulario.conProveedor";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "formularios_seq")
+    @SequenceGenerator(name = "formularios_seq", sequenceName = "formularios_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "El nombre de la tienda es obligatorio")
@@ -123,14 +131,12 @@ public class Formulario {
         this.fechaFin = fechaFin;
     }
 
+    /**
+     * El estado según la fecha de fin lo ajusta {@link VencimientoFormularioListener}
+     */
     @PreUpdate
     public void preUpdate() {
         this.fechaActualizacion = LocalDateTime.now();
-        
-        // Actualizar estado basado en fechas
-        if (LocalDate.now().isAfter(fechaFin)) {
-            this.estado = Estado.VENCIDO;
-        }
     }
 
     // Getters y Setters
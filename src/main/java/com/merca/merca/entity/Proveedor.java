@@ -9,12 +9,20 @@ import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * Las restricciones únicas llevan los nombres que PostgreSQL les dio en V1, para
+ * reconocer cuál chocó al guardar (ver {@code FiltrosUnicidad.Campo})
+ */
 @Entity
-@Table(name = "proveedores")
+@Table(name = "proveedores", uniqueConstraints = {
+        @UniqueConstraint(name = "proveedores_rfc_key", columnNames = "rfc"),
+        @UniqueConstraint(name = "proveedores_email_key", columnNames = "email")
+})
 public class Proveedor {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "proveedores_seq")
+    @SequenceGenerator(name = "proveedores_seq", sequenceName = "proveedores_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "El nombre del proveedor es obligatorio")
@@ -24,7 +32,7 @@ public class Proveedor {
 
     @NotBlank(message = "El RFC es obligatorio")
     @Pattern(regexp = "^[A-Z&Ñ]{3,4}[0-9]{6}[A-Z0-9]{3}$", message = "El RFC debe tener un formato válido")
-    @Column(unique = true, nullable = false, length = 13)
+    @Column(nullable = false, length = 13)
     private String rfc;
 
     @NotBlank(message = "La razón social es obligatoria")
@@ -33,7 +41,6 @@ public class Proveedor {
     private String razonSocial;
 
     @Email(message = "El email debe tener un formato válido")
-    @Column(unique = true)
     private String email;
 
     @Pattern(regexp = "^[0-9]{10}$", message = "El teléfono debe tener 10 dígitos")
@@ -0,0 +1,26 @@
+package com.merca.merca.entity;
+
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Marca como VENCIDO, al actualizarse, un formulario cuya fecha de fin ya pasó.
+ * El día de hoy se toma en la zona app.vencimiento.zona, la misma del proceso programado
+ * de vencimiento, sin importar la zona del servidor. Hibernate crea el listener a través
+ * de Spring, que le inyecta la zona.
+ */
+public class VencimientoFormularioListener {
+
+    @Value("${app.vencimiento.zona:America/Mexico_City}")
+    private ZoneId zona;
+
+    @PreUpdate
+    public void marcarSiVencio(Formulario formulario) {
+        if (formulario.getFechaFin() != null && LocalDate.now(zona).isAfter(formulario.getFechaFin())) {
+            formulario.setEstado(Formulario.Estado.VENCIDO);
+        }
+    }
+}
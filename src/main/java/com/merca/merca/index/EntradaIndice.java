@@ -0,0 +1,31 @@
+package com.merca.merca.index;
+
+import com.merca.merca.entity.Formulario;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Valores de un formulario que guarda el índice de bitmaps
+ */
+public record EntradaIndice(Long id, String codigoTienda, Long proveedorId, Formulario.Estado estado,
+                            LocalDate diaCreacion) {
+
+    /**
+     * Usado por la consulta que arma el índice, que lee la fecha de creación completa
+     */
+    public EntradaIndice(Long id, String codigoTienda, Long proveedorId, Formulario.Estado estado,
+                         LocalDateTime fechaCreacion) {
+        this(id, codigoTienda, proveedorId, estado, fechaCreacion != null ? fechaCreacion.toLocalDate() : null);
+    }
+
+    /**
+     * Toma los valores indexados de un formulario (antes o después de un cambio)
+     */
+    public static EntradaIndice de(Formulario formulario) {
+        return new EntradaIndice(formulario.getId(), formulario.getCodigoTienda(),
+                formulario.getProveedor() != null ? formulario.getProveedor().getId() : null,
+                formulario.getEstado(),
+                formulario.getFechaCreacion() != null ? formulario.getFechaCreacion().toLocalDate() : null);
+    }
+}
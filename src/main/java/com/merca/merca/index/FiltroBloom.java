@@ -0,0 +1,83 @@
+package com.merca.merca.index;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom para textos: responde "seguro que no está" o "quizá está".
+ * Nunca da falsos negativos; la tasa de falsos positivos se fija al crearlo según
+ * el número de elementos esperado. No permite quitar elementos.
+ * <p>
+ * Se puede consultar y agregar desde varios hilos a la vez.
+ */
+public class FiltroBloom {
+
+    private final AtomicLongArray bits;
+
+    private final long totalBits;
+
+    private final int funciones;
+
+    /**
+     * @param esperados          elementos que se espera guardar
+     * @param probabilidadFalsos tasa de falsos positivos buscada con ese número de elementos (p. ej. 0.01)
+     */
+    public FiltroBloom(long esperados, double probabilidadFalsos) {
+        long n = Math.max(1, esperados);
+        long m = (long) Math.ceil(-n * Math.log(probabilidadFalsos) / (Math.log(2) * Math.log(2)));
+        this.totalBits = Math.max(64, m);
+        this.funciones = Math.max(1, (int) Math.round((double) totalBits / n * Math.log(2)));
+        this.bits = new AtomicLongArray(Math.toIntExact((totalBits + 63) / 64));
+    }
+
+    public void agregar(String valor) {
+        long hash = hash(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= funciones; i++) {
+            long bit = posicion(h1 + i * h2);
+            int palabra = (int) (bit >>> 6);
+            long mascara = 1L << bit;
+            long actual;
+            do {
+                actual = bits.get(palabra);
+            } while ((actual & mascara) == 0 && !bits.compareAndSet(palabra, actual, actual | mascara));
+        }
+    }
+
+    /**
+     * false si el valor seguro no se agregó; true si probablemente sí
+     */
+    public boolean puedeContener(String valor) {
+        long hash = hash(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= funciones; i++) {
+            long bit = posicion(h1 + i * h2);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long posicion(int combinado) {
+        return (combinado & 0x7fffffffL) % totalBits;
+    }
+
+    /**
+     * FNV-1a de 64 bits seguido del mezclado final de MurmurHash3
+     */
+    private static long hash(String valor) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < valor.length(); i++) {
+            h ^= valor.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,184 @@
+package com.merca.merca.index;
+
+import com.merca.merca.repository.ProveedorRepository;
+import com.merca.merca.repository.UsuarioRepository;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Filtros de Bloom sobre los campos únicos (RFC y email de proveedores, username y email
+ * de usuarios) para no ir a la base de datos cuando un valor seguro no está registrado.
+ * Solo un "quizá" se confirma con la consulta {@code existsBy...}.
+ * <p>
+ * El filtro solo ahorra la verificación previa: la que manda es la restricción UNIQUE de
+ * la tabla. Si el filtro se equivoca (otra instancia guardó el valor después de la última
+ * reconstrucción), el INSERT falla y {@link #campoViolado} indica qué campo chocó para
+ * responder con el mismo mensaje que la verificación.
+ * <p>
+ * Los valores nuevos se agregan al guardarse, antes de confirmar la transacción: si luego
+ * se revierte, el único efecto es un falso positivo. Los valores que dejan de usarse no se
+ * pueden quitar, así que los filtros se reconstruyen cada cierto tiempo. Mientras no estén
+ * listos, toda consulta responde "quizá".
+ */
+@Component
+public class FiltrosUnicidad {
+
+    private static final Logger log = LoggerFactory.getLogger(FiltrosUnicidad.class);
+
+    /**
+     * Campo único que cubre cada filtro, con el nombre de su restricción en la tabla
+     */
+    public enum Campo {
+        RFC_PROVEEDOR("proveedores_rfc_key"),
+        EMAIL_PROVEEDOR("proveedores_email_key"),
+        USERNAME_USUARIO("usuarios_username_key"),
+        EMAIL_USUARIO("usuarios_email_key");
+
+        private final String restriccion;
+
+        Campo(String restriccion) {
+            this.restriccion = restriccion;
+        }
+    }
+
+    @Autowired
+    private ProveedorRepository proveedorRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Value("${app.unicidad.falsos-positivos:0.01}")
+    private double probabilidadFalsos;
+
+    private final TransactionTemplate transaccionLectura;
+
+    private volatile Map<Campo, FiltroBloom> filtros;
+
+    /**
+     * Valores agregados mientras se reconstruye, para agregarlos también a los filtros nuevos
+     */
+    private List<Agregado> agregadosDuranteReconstruccion;
+
+    /**
+     * Una sola reconstrucción a la vez
+     */
+    private final ReentrantLock reconstruccion = new ReentrantLock();
+
+    private record Agregado(Campo campo, String valor) {
+    }
+
+    public FiltrosUnicidad(PlatformTransactionManager transactionManager) {
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+    }
+
+    /**
+     * Vuelve a leer todos los valores y reemplaza los filtros, dimensionados con holgura
+     * para el doble de registros actuales
+     */
+    @Scheduled(fixedDelayString = "${app.unicidad.refresco-ms:3600000}",
+               initialDelayString = "${app.indice.retraso-inicial-ms:0}")
+    public void reconstruir() {
+        reconstruccion.lock();
+        try {
+            long inicio = System.currentTimeMillis();
+            synchronized (this) {
+                agregadosDuranteReconstruccion = new ArrayList<>();
+            }
+            try {
+                Map<Campo, FiltroBloom> nuevos = transaccionLectura.execute(status -> {
+                    long proveedores = proveedorRepository.count();
+                    long usuarios = usuarioRepository.count();
+                    Map<Campo, FiltroBloom> leidos = new EnumMap<>(Campo.class);
+                    leidos.put(Campo.RFC_PROVEEDOR, leer(proveedores, proveedorRepository::streamRfcs));
+                    leidos.put(Campo.EMAIL_PROVEEDOR, leer(proveedores, proveedorRepository::streamEmails));
+                    leidos.put(Campo.USERNAME_USUARIO, leer(usuarios, usuarioRepository::streamUsernames));
+                    leidos.put(Campo.EMAIL_USUARIO, leer(usuarios, usuarioRepository::streamEmails));
+                    return leidos;
+                });
+                synchronized (this) {
+                    for (Agregado agregado : agregadosDuranteReconstruccion) {
+                        nuevos.get(agregado.campo()).agregar(agregado.valor());
+                    }
+                    filtros = nuevos;
+                }
+            } finally {
+                synchronized (this) {
+                    agregadosDuranteReconstruccion = null;
+                }
+            }
+            log.info("Filtros de unicidad reconstruidos en {} ms", System.currentTimeMillis() - inicio);
+        } finally {
+            reconstruccion.unlock();
+        }
+    }
+
+    private FiltroBloom leer(long registros, Supplier<Stream<String>> valores) {
+        FiltroBloom filtro = new FiltroBloom(Math.max(1000, registros * 2), probabilidadFalsos);
+        try (Stream<String> stream = valores.get()) {
+            stream.forEach(filtro::agregar);
+        }
+        return filtro;
+    }
+
+    /**
+     * false si el valor seguro no está registrado; true si puede estarlo (o los filtros no están listos)
+     */
+    public boolean puedeExistir(Campo campo, String valor) {
+        Map<Campo, FiltroBloom> actuales = filtros;
+        return actuales == null || valor == null || actuales.get(campo).puedeContener(valor);
+    }
+
+    /**
+     * Registra un valor recién guardado
+     */
+    public synchronized void agregar(Campo campo, String valor) {
+        if (valor == null) {
+            return;
+        }
+        if (filtros != null) {
+            filtros.get(campo).agregar(valor);
+        }
+        if (agregadosDuranteReconstruccion != null) {
+            agregadosDuranteReconstruccion.add(new Agregado(campo, valor));
+        }
+    }
+
+    /**
+     * Campo cuya restricción única rechazó el guardado, si el error es un choque de llave conocido
+     */
+    public static Optional<Campo> campoViolado(DataIntegrityViolationException e) {
+        Throwable causa = e;
+        while (causa != null && !(causa instanceof ConstraintViolationException)) {
+            causa = causa.getCause();
+        }
+        if (causa == null || ((ConstraintViolationException) causa).getConstraintName() == null) {
+            return Optional.empty();
+        }
+        String restriccion = ((ConstraintViolationException) causa).getConstraintName().toLowerCase(Locale.ROOT);
+        for (Campo campo : Campo.values()) {
+            if (restriccion.contains(campo.restriccion)) {
+                return Optional.of(campo);
+            }
+        }
+        return Optional.empty();
+    }
+}
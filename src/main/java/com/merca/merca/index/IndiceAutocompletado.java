@@ -0,0 +1,202 @@
+package com.merca.merca.index;
+
+import com.merca.merca.dto.ProveedorOpcion;
+import com.merca.merca.repository.FormularioRepository;
+import com.merca.merca.repository.ProveedorRepository;
+import com.merca.merca.repository.UsuarioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Árboles de prefijos en memoria para autocompletar proveedores activos (por nombre,
+ * por cada palabra del nombre y por RFC) y códigos de tienda conocidos.
+ * <p>
+ * Se arman al iniciar y cada cierto tiempo; entre tanto los servicios registran las
+ * altas, bajas y cambios de proveedores y las tiendas nuevas, que se aplican al
+ * confirmarse la transacción.
+ */
+@Component
+public class IndiceAutocompletado {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceAutocompletado.class);
+
+    @Autowired
+    private ProveedorRepository proveedorRepository;
+
+    @Autowired
+    private FormularioRepository formularioRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    private final TransactionTemplate transaccionLectura;
+
+    /**
+     * Una sola reconstrucción a la vez (sin monitor: dentro se consulta la base de datos)
+     */
+    private final ReentrantLock reconstruccion = new ReentrantLock();
+
+    private final ReadWriteLock candado = new ReentrantReadWriteLock();
+
+    private Arboles arboles = new Arboles();
+
+    /**
+     * Cambios recibidos mientras se reconstruye, para aplicarlos sobre los árboles nuevos
+     */
+    private List<Consumer<Arboles>> cambiosDuranteReconstruccion;
+
+    public IndiceAutocompletado(PlatformTransactionManager transactionManager) {
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+    }
+
+    private static final class Arboles {
+
+        private final TrieAutocompletado<ProveedorOpcion> proveedores = new TrieAutocompletado<>();
+        private final TrieAutocompletado<String> tiendas = new TrieAutocompletado<>();
+
+        private void agregarProveedor(ProveedorOpcion proveedor) {
+            claves(proveedor).forEach(clave -> proveedores.agregar(clave, proveedor));
+        }
+
+        private void quitarProveedor(ProveedorOpcion proveedor) {
+            claves(proveedor).forEach(clave -> proveedores.quitar(clave, proveedor));
+        }
+
+        private void agregarTienda(String codigoTienda) {
+            tiendas.agregar(codigoTienda, codigoTienda);
+        }
+
+        /**
+         * El RFC y el nombre a partir de cada palabra, para que "norte" encuentre "Lácteos del Norte"
+         */
+        private static List<String> claves(ProveedorOpcion proveedor) {
+            List<String> claves = new ArrayList<>();
+            claves.add(proveedor.rfc());
+            String nombre = proveedor.nombre() != null ? proveedor.nombre().trim() : "";
+            claves.add(nombre);
+            for (int i = 1; i < nombre.length(); i++) {
+                if (Character.isWhitespace(nombre.charAt(i - 1)) && !Character.isWhitespace(nombre.charAt(i))) {
+                    claves.add(nombre.substring(i));
+                }
+            }
+            return claves;
+        }
+    }
+
+    /**
+     * Vuelve a leer proveedores activos y tiendas y reemplaza los árboles
+     */
+    @Scheduled(fixedDelayString = "${app.autocompletado.refresco-ms:600000}",
+               initialDelayString = "${app.indice.retraso-inicial-ms:0}")
+    public void reconstruir() {
+        reconstruccion.lock();
+        try {
+            long inicio = System.currentTimeMillis();
+            modificar(a -> cambiosDuranteReconstruccion = new ArrayList<>());
+
+            Arboles nuevos;
+            try {
+                nuevos = transaccionLectura.execute(status -> {
+                    Arboles leidos = new Arboles();
+                    proveedorRepository.findOpcionesActivas().forEach(leidos::agregarProveedor);
+                    formularioRepository.findCodigosTienda().forEach(leidos::agregarTienda);
+                    usuarioRepository.findTiendasAsignadas().forEach(leidos::agregarTienda);
+                    return leidos;
+                });
+            } catch (RuntimeException e) {
+                modificar(a -> cambiosDuranteReconstruccion = null);
+                throw e;
+            }
+
+            candado.writeLock().lock();
+            try {
+                cambiosDuranteReconstruccion.forEach(cambio -> cambio.accept(nuevos));
+                cambiosDuranteReconstruccion = null;
+                arboles = nuevos;
+            } finally {
+                candado.writeLock().unlock();
+            }
+            log.info("Índice de autocompletado reconstruido: {} claves de proveedores, {} tiendas en {} ms",
+                    nuevos.proveedores.getClaves(), nuevos.tiendas.getClaves(), System.currentTimeMillis() - inicio);
+        } finally {
+            reconstruccion.unlock();
+        }
+    }
+
+    /**
+     * Registra el cambio de un proveedor. Solo los proveedores activos se sugieren, así que
+     * {@code anterior} o {@code nuevo} son null cuando el proveedor no estaba o ya no está activo.
+     */
+    public void registrarProveedor(ProveedorOpcion anterior, ProveedorOpcion nuevo) {
+        if (anterior == null && nuevo == null || anterior != null && anterior.equals(nuevo)) {
+            return;
+        }
+        TrasConfirmar.ejecutar(() -> aplicar(a -> {
+            if (anterior != null) {
+                a.quitarProveedor(anterior);
+            }
+            if (nuevo != null) {
+                a.agregarProveedor(nuevo);
+            }
+        }));
+    }
+
+    /**
+     * Registra un código de tienda (p. ej. al guardar un formulario de una tienda nueva)
+     */
+    public void registrarTienda(String codigoTienda) {
+        if (codigoTienda == null || codigoTienda.isBlank()) {
+            return;
+        }
+        TrasConfirmar.ejecutar(() -> aplicar(a -> a.agregarTienda(codigoTienda)));
+    }
+
+    public List<ProveedorOpcion> buscarProveedores(String prefijo, int limite) {
+        candado.readLock().lock();
+        try {
+            return arboles.proveedores.buscar(prefijo, limite);
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    public List<String> buscarTiendas(String prefijo, int limite) {
+        candado.readLock().lock();
+        try {
+            return arboles.tiendas.buscar(prefijo, limite);
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    private void aplicar(Consumer<Arboles> cambio) {
+        modificar(a -> {
+            cambio.accept(a);
+            if (cambiosDuranteReconstruccion != null) {
+                cambiosDuranteReconstruccion.add(cambio);
+            }
+        });
+    }
+
+    private void modificar(Consumer<Arboles> cambio) {
+        candado.writeLock().lock();
+        try {
+            cambio.accept(arboles);
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.merca.merca.index;
+
+import com.merca.merca.entity.Formulario;
+import com.merca.merca.repository.FormularioRepository;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Índice secundario en memoria de los formularios. Cada tienda, proveedor, estado y
+ * día de creación tiene un bitmap comprimido (Roaring) con las posiciones de sus formularios,
+ * de modo que los conteos por estado de una combinación de filtros se resuelven con
+ * AND/OR de bitmaps. Las posiciones son enteros consecutivos asignados a cada id, así que
+ * los bitmaps no dependen de que los ids quepan en un int.
+ * <p>
+ * Se arma completo al iniciar y cada {@code app.indice.refresco-ms}, y entre tanto se
+ * actualiza con los cambios que hace {@link com.merca.merca.service.FormularioService}
+ * en esta instancia, aplicados al confirmarse la transacción. Los cambios de otras
+ * instancias y del vencimiento masivo solo se ven en la siguiente reconstrucción, así que
+ * los conteos pueden ir atrasados hasta ese intervalo: se usan únicamente para las
+ * insignias de /formularios filtradas por proveedor o fechas, que son orientativas. El
+ * listado y los conteos sin esos filtros salen de la base de datos.
+ * Mientras no esté listo, los conteos devuelven vacío.
+ */
+@Component
+public class IndiceBitmapFormularios {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceBitmapFormularios.class);
+
+    @Autowired
+    private FormularioRepository formularioRepository;
+
+    private final TransactionTemplate transaccionLectura;
+
+    /**
+     * Una sola reconstrucción a la vez
+     */
+    private final ReentrantLock reconstruccion = new ReentrantLock();
+
+    private final ReadWriteLock candado = new ReentrantReadWriteLock();
+
+    private Bitmaps bitmaps;
+
+    /**
+     * Cambios recibidos mientras se reconstruye, para aplicarlos sobre el índice nuevo
+     */
+    private List<Cambio> cambiosDuranteReconstruccion;
+
+    public IndiceBitmapFormularios(PlatformTransactionManager transactionManager) {
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+    }
+
+    /**
+     * Vuelve a leer todos los formularios y reemplaza el índice
+     */
+    @Scheduled(fixedDelayString = "${app.indice.refresco-ms:600000}",
+               initialDelayString = "${app.indice.retraso-inicial-ms:0}")
+    public void reconstruir() {
+        reconstruccion.lock();
+        try {
+            long inicio = System.currentTimeMillis();
+            candado.writeLock().lock();
+            try {
+                cambiosDuranteReconstruccion = new ArrayList<>();
+            } finally {
+                candado.writeLock().unlock();
+            }
+
+            Bitmaps nuevos;
+            try {
+                nuevos = transaccionLectura.execute(status -> {
+                    Bitmaps leidos = new Bitmaps();
+                    try (Stream<EntradaIndice> entradas = formularioRepository.streamEntradasIndice()) {
+                        entradas.forEach(leidos::agregar);
+                    }
+                    leidos.optimizar();
+                    return leidos;
+                });
+            } catch (RuntimeException e) {
+                candado.writeLock().lock();
+                try {
+                    cambiosDuranteReconstruccion = null;
+                } finally {
+                    candado.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            candado.writeLock().lock();
+            try {
+                // Los cambios confirmados durante la lectura se vuelven a aplicar; mover es idempotente
+                cambiosDuranteReconstruccion.forEach(cambio -> nuevos.mover(cambio.anterior(), cambio.nueva()));
+                cambiosDuranteReconstruccion = null;
+                bitmaps = nuevos;
+            } finally {
+                candado.writeLock().unlock();
+            }
+            log.info("Índice de formularios reconstruido: {} formularios en {} ms",
+                    nuevos.todos.getLongCardinality(), System.currentTimeMillis() - inicio);
+        } finally {
+            reconstruccion.unlock();
+        }
+    }
+
+    /**
+     * Registra el cambio de un formulario. Si hay una transacción activa se aplica
+     * al confirmarse; si se revierte, el índice no cambia.
+     *
+     * @param anterior valores antes del cambio, o null si el formulario es nuevo
+     * @param nueva    valores después del cambio, o null si el formulario se eliminó
+     */
+    public void registrarCambio(EntradaIndice anterior, EntradaIndice nueva) {
+        TrasConfirmar.ejecutar(() -> aplicar(anterior, nueva));
+    }
+
+    private void aplicar(EntradaIndice anterior, EntradaIndice nueva) {
+        candado.writeLock().lock();
+        try {
+            if (bitmaps != null) {
+                bitmaps.mover(anterior, nueva);
+            }
+            if (cambiosDuranteReconstruccion != null) {
+                cambiosDuranteReconstruccion.add(new Cambio(anterior, nueva));
+            }
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Número de formularios de cada estado que cumplen los filtros.
+     * Vacío si el índice aún no está listo.
+     */
+    public Optional<Map<Formulario.Estado, Long>> contarPorEstado(String codigoTienda, Long proveedorId,
+                                                                  LocalDate desde, LocalDate hasta) {
+        candado.readLock().lock();
+        try {
+            if (bitmaps == null) {
+                return Optional.empty();
+            }
+            RoaringBitmap filtrados = bitmaps.filtrar(codigoTienda, proveedorId, desde, hasta);
+            Map<Formulario.Estado, Long> conteos = new EnumMap<>(Formulario.Estado.class);
+            for (Formulario.Estado estado : Formulario.Estado.values()) {
+                RoaringBitmap delEstado = bitmaps.porEstado.get(estado);
+                conteos.put(estado, delEstado != null ? RoaringBitmap.andCardinality(filtrados, delEstado) : 0L);
+            }
+            return Optional.of(conteos);
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    private record Cambio(EntradaIndice anterior, EntradaIndice nueva) {
+    }
+
+    /**
+     * Bitmaps del índice. No es seguro para hilos; el acceso lo controla el candado.
+     */
+    private static final class Bitmaps {
+
+        private final Posiciones posiciones = new Posiciones();
+        private final RoaringBitmap todos = new RoaringBitmap();
+        private final Map<String, RoaringBitmap> porTienda = new HashMap<>();
+        private final Map<Long, RoaringBitmap> porProveedor = new HashMap<>();
+        private final Map<Formulario.Estado, RoaringBitmap> porEstado = new EnumMap<>(Formulario.Estado.class);
+        private final NavigableMap<LocalDate, RoaringBitmap> porDia = new TreeMap<>();
+
+        private void agregar(EntradaIndice entrada) {
+            int posicion = posiciones.asignar(entrada.id());
+            todos.add(posicion);
+            bitmap(porTienda, entrada.codigoTienda()).add(posicion);
+            bitmap(porProveedor, entrada.proveedorId()).add(posicion);
+            bitmap(porEstado, entrada.estado()).add(posicion);
+            bitmap(porDia, entrada.diaCreacion()).add(posicion);
+        }
+
+        private void quitar(EntradaIndice entrada) {
+            int posicion = posiciones.buscar(entrada.id());
+            if (posicion < 0) {
+                return;
+            }
+            todos.remove(posicion);
+            quitar(porTienda, entrada.codigoTienda(), posicion);
+            quitar(porProveedor, entrada.proveedorId(), posicion);
+            quitar(porEstado, entrada.estado(), posicion);
+            quitar(porDia, entrada.diaCreacion(), posicion);
+        }
+
+        private void mover(EntradaIndice anterior, EntradaIndice nueva) {
+            if (anterior != null) {
+                quitar(anterior);
+            }
+            if (nueva != null) {
+                agregar(nueva);
+            }
+        }
+
+        private void optimizar() {
+            todos.runOptimize();
+            porTienda.values().forEach(RoaringBitmap::runOptimize);
+            porProveedor.values().forEach(RoaringBitmap::runOptimize);
+            porEstado.values().forEach(RoaringBitmap::runOptimize);
+            porDia.values().forEach(RoaringBitmap::runOptimize);
+        }
+
+        /**
+         * Copia de las posiciones que cumplen tienda, proveedor y rango de días de creación
+         */
+        private RoaringBitmap filtrar(String codigoTienda, Long proveedorId, LocalDate desde, LocalDate hasta) {
+            RoaringBitmap resultado = todos.clone();
+            if (codigoTienda != null) {
+                resultado.and(porTienda.getOrDefault(codigoTienda, new RoaringBitmap()));
+            }
+            if (proveedorId != null) {
+                resultado.and(porProveedor.getOrDefault(proveedorId, new RoaringBitmap()));
+            }
+            if (desde != null || hasta != null) {
+                NavigableMap<LocalDate, RoaringBitmap> dias = porDia;
+                if (desde != null) {
+                    dias = dias.tailMap(desde, true);
+                }
+                if (hasta != null) {
+                    dias = dias.headMap(hasta, true);
+                }
+                resultado.and(dias.isEmpty() ? new RoaringBitmap() : FastAggregation.or(dias.values().iterator()));
+            }
+            return resultado;
+        }
+
+        private static <K> RoaringBitmap bitmap(Map<K, RoaringBitmap> mapa, K clave) {
+            return mapa.computeIfAbsent(clave, k -> new RoaringBitmap());
+        }
+
+        private static <K> void quitar(Map<K, RoaringBitmap> mapa, K clave, int posicion) {
+            RoaringBitmap bitmap = mapa.get(clave);
+            if (bitmap != null) {
+                bitmap.remove(posicion);
+                if (bitmap.isEmpty()) {
+                    mapa.remove(clave);
+                }
+            }
+        }
+    }
+
+    /**
+     * Asigna a cada id una posición consecutiva desde 0. Mientras los ids llegan en orden
+     * creciente (la reconstrucción los lee ordenados y los nuevos suelen ser mayores) se
+     * guardan en un arreglo ordenado donde la posición es el índice; los que llegan fuera
+     * de orden (p. ej. bloques de secuencia de otra instancia) van a un mapa aparte.
+     * Las posiciones de formularios eliminados no se reutilizan hasta la siguiente reconstrucción.
+     */
+    private static final class Posiciones {
+
+        private long[] ordenados = new long[1024];
+        private int totalOrdenados;
+        private final Map<Long, Integer> fueraDeOrden = new HashMap<>();
+        private int siguiente;
+
+        /**
+         * Posición del id, o -1 si no tiene
+         */
+        private int buscar(long id) {
+            int indice = Arrays.binarySearch(ordenados, 0, totalOrdenados, id);
+            if (indice >= 0) {
+                return indice;
+            }
+            return fueraDeOrden.getOrDefault(id, -1);
+        }
+
+        /**
+         * Posición del id, asignándole la siguiente si aún no tiene
+         */
+        private int asignar(long id) {
+            int posicion = buscar(id);
+            if (posicion >= 0) {
+                return posicion;
+            }
+            if (siguiente == Integer.MAX_VALUE) {
+                throw new IllegalStateException("El índice de formularios no admite más posiciones");
+            }
+            boolean enOrden = siguiente == totalOrdenados
+                    && (totalOrdenados == 0 || id > ordenados[totalOrdenados - 1]);
+            if (enOrden) {
+                if (totalOrdenados == ordenados.length) {
+                    ordenados = Arrays.copyOf(ordenados, ordenados.length * 2);
+                }
+                ordenados[totalOrdenados++] = id;
+            } else {
+                fueraDeOrden.put(id, siguiente);
+            }
+            return siguiente++;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.merca.merca.index;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Aplica cambios a los índices en memoria solo cuando la transacción que los
+ * produjo se confirma; si se revierte, el índice no cambia.
+ */
+final class TrasConfirmar {
+
+    private TrasConfirmar() {
+    }
+
+    /**
+     * Ejecuta la acción al confirmarse la transacción activa, o de inmediato si no hay una
+     */
+    static void ejecutar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+}
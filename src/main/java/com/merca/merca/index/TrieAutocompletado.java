@@ -0,0 +1,137 @@
+package com.merca.merca.index;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Árbol de prefijos para autocompletar. Las claves se guardan sin acentos y en
+ * minúsculas, de modo que "pena" encuentra "Peña". Un mismo valor puede registrarse
+ * con varias claves; en los resultados aparece una sola vez.
+ * <p>
+ * No es seguro para hilos: quien lo use debe sincronizar el acceso.
+ */
+public class TrieAutocompletado<T> {
+
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+
+    private final Nodo<T> raiz = new Nodo<>();
+
+    private int claves;
+
+    private static final class Nodo<T> {
+        private final Map<Character, Nodo<T>> hijos = new TreeMap<>();
+        private final Set<T> valores = new LinkedHashSet<>(1);
+    }
+
+    /**
+     * Texto en minúsculas y sin acentos, como se guarda y se busca en el árbol
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinAcentos = MARCAS_DIACRITICAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return sinAcentos.toLowerCase(Locale.ROOT).trim();
+    }
+
+    public void agregar(String clave, T valor) {
+        String normalizada = normalizar(clave);
+        if (normalizada.isEmpty()) {
+            return;
+        }
+        Nodo<T> nodo = raiz;
+        for (int i = 0; i < normalizada.length(); i++) {
+            nodo = nodo.hijos.computeIfAbsent(normalizada.charAt(i), c -> new Nodo<>());
+        }
+        if (nodo.valores.add(valor)) {
+            claves++;
+        }
+    }
+
+    /**
+     * Quita el valor de la clave y poda las ramas que quedan vacías
+     */
+    public void quitar(String clave, T valor) {
+        String normalizada = normalizar(clave);
+        if (normalizada.isEmpty()) {
+            return;
+        }
+        Deque<Nodo<T>> camino = new ArrayDeque<>(normalizada.length() + 1);
+        Nodo<T> nodo = raiz;
+        camino.push(nodo);
+        for (int i = 0; i < normalizada.length(); i++) {
+            nodo = nodo.hijos.get(normalizada.charAt(i));
+            if (nodo == null) {
+                return;
+            }
+            camino.push(nodo);
+        }
+        if (!nodo.valores.remove(valor)) {
+            return;
+        }
+        claves--;
+        for (int i = normalizada.length() - 1; i >= 0; i--) {
+            Nodo<T> hijo = camino.pop();
+            if (!hijo.valores.isEmpty() || !hijo.hijos.isEmpty()) {
+                break;
+            }
+            camino.peek().hijos.remove(normalizada.charAt(i));
+        }
+    }
+
+    /**
+     * Hasta {@code limite} valores distintos cuyas claves empiezan con el prefijo,
+     * en orden alfabético de clave. Se detiene en cuanto junta suficientes.
+     */
+    public List<T> buscar(String prefijo, int limite) {
+        String normalizado = normalizar(prefijo);
+        Nodo<T> nodo = raiz;
+        for (int i = 0; i < normalizado.length() && nodo != null; i++) {
+            nodo = nodo.hijos.get(normalizado.charAt(i));
+        }
+        if (nodo == null || limite <= 0) {
+            return List.of();
+        }
+
+        Set<T> encontrados = new LinkedHashSet<>();
+        Deque<Iterator<Nodo<T>>> pendientes = new ArrayDeque<>();
+        encontrados.addAll(nodo.valores);
+        pendientes.push(nodo.hijos.values().iterator());
+        while (!pendientes.isEmpty() && encontrados.size() < limite) {
+            Iterator<Nodo<T>> hermanos = pendientes.peek();
+            if (!hermanos.hasNext()) {
+                pendientes.pop();
+                continue;
+            }
+            Nodo<T> siguiente = hermanos.next();
+            encontrados.addAll(siguiente.valores);
+            pendientes.push(siguiente.hijos.values().iterator());
+        }
+
+        List<T> resultado = new ArrayList<>(Math.min(limite, encontrados.size()));
+        for (T valor : encontrados) {
+            if (resultado.size() == limite) {
+                break;
+            }
+            resultado.add(valor);
+        }
+        return resultado;
+    }
+
+    /**
+     * Número de pares clave-valor guardados
+     */
+    public int getClaves() {
+        return claves;
+    }
+}
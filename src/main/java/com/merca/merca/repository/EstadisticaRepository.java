@@ -0,0 +1,69 @@
+package com.merca.merca.repository;
+
+import com.merca.merca.entity.Estadistica;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface EstadisticaRepository extends JpaRepository<Estadistica, String>, EstadisticaRepositoryCustom {
+
+    /**
+     * Obtiene el valor de un contador
+     */
+    @Query("SELECT e.total FROM Estadistica e WHERE e.clave = :clave")
+    Optional<Long> findTotalByClave(@Param("clave") String clave);
+
+    /**
+     * Crea el contador en cero si aún no existe
+     */
+    @Modifying
+    @Query(value = "INSERT INTO estadisticas (clave, total) SELECT :clave, 0 " +
+                   "WHERE NOT EXISTS (SELECT 1 FROM estadisticas WHERE clave = :clave)", nativeQuery = true)
+    int crearSiNoExiste(@Param("clave") String clave);
+
+    /**
+     * Suma (o resta) al contador de forma atómica en la base de datos
+     */
+    @Modifying
+    @Query("UPDATE Estadistica e SET e.total = e.total + :delta WHERE e.clave = :clave")
+    int incrementar(@Param("clave") String clave, @Param("delta") long delta);
+
+    /**
+     * Elimina todos los contadores
+     */
+    @Modifying
+    @Query("DELETE FROM Estadistica e")
+    int eliminarTodas();
+
+    /**
+     * Recalcula los contadores de formularios por tienda y estado
+     */
+    @Modifying
+    @Query(value = "INSERT INTO estadisticas (clave, total) " +
+                   "SELECT CONCAT('FORMULARIO|', codigo_tienda, '|', estado), COUNT(*) FROM formularios " +
+                   "GROUP BY codigo_tienda, estado", nativeQuery = true)
+    int insertarConteosFormulariosPorTienda();
+
+    /**
+     * Recalcula los contadores de formularios por estado (todas las tiendas)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO estadisticas (clave, total) " +
+                   "SELECT CONCAT('FORMULARIO|*|', estado), COUNT(*) FROM formularios GROUP BY estado",
+           nativeQuery = true)
+    int insertarConteosFormularios();
+
+    /**
+     * Recalcula los contadores de proveedores por estado
+     */
+    @Modifying
+    @Query(value = "INSERT INTO estadisticas (clave, total) " +
+                   "SELECT CONCAT('PROVEEDOR|', estado), COUNT(*) FROM proveedores GROUP BY estado",
+           nativeQuery = true)
+    int insertarConteosProveedores();
+}
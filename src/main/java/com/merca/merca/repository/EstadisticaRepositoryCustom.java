@@ -0,0 +1,22 @@
+package com.merca.merca.repository;
+
+import java.time.Duration;
+
+/**
+ * Bloqueos de la tabla estadisticas que dependen de la base de datos
+ */
+public interface EstadisticaRepositoryCustom {
+
+    /**
+     * Reserva la tabla para recalcularla dentro de la transacción actual. Solo una instancia
+     * la recalcula a la vez, y los ajustes de contadores de otras transacciones esperan a que
+     * el recálculo confirme (y el recálculo a los que ya habían empezado), así que ninguno se pierde.
+     *
+     * @param esperarTurno si otra instancia ya está recalculando: true espera a que termine,
+     *                     false no recalcula
+     * @param espera       máximo que se espera por cada bloqueo; al agotarse se lanza
+     *                     {@link org.springframework.dao.PessimisticLockingFailureException}
+     * @return false si no se obtuvo el turno (solo con esperarTurno en false)
+     */
+    boolean bloquearParaRecalculo(boolean esperarTurno, Duration espera);
+}
@@ -0,0 +1,46 @@
+package com.merca.merca.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.Duration;
+
+/**
+ * Implementación de {@link EstadisticaRepositoryCustom}.
+ * <p>
+ * En PostgreSQL el turno entre instancias es un bloqueo asesor de transacción y la tabla se
+ * bloquea en modo EXCLUSIVE (las lecturas siguen, las escrituras esperan). Con
+ * {@code app.bloqueos.postgresql=false} (p. ej. H2 en los tests) no se bloquea nada.
+ */
+class EstadisticaRepositoryImpl implements EstadisticaRepositoryCustom {
+
+    private static final String BLOQUEO_RECALCULO = "estadisticas.recalculo";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.bloqueos.postgresql:true}")
+    private boolean postgresql;
+
+    @Override
+    public boolean bloquearParaRecalculo(boolean esperarTurno, Duration espera) {
+        if (!postgresql) {
+            return true;
+        }
+        entityManager.createNativeQuery("SELECT set_config('lock_timeout', :espera, true)")
+                .setParameter("espera", espera.toMillis() + "ms")
+                .getSingleResult();
+        if (esperarTurno) {
+            entityManager.createNativeQuery("SELECT 1 FROM pg_advisory_xact_lock(hashtext(:clave))")
+                    .setParameter("clave", BLOQUEO_RECALCULO)
+                    .getSingleResult();
+        } else if (!(Boolean) entityManager.createNativeQuery("SELECT pg_try_advisory_xact_lock(hashtext(:clave))")
+                .setParameter("clave", BLOQUEO_RECALCULO)
+                .getSingleResult()) {
+            return false;
+        }
+        entityManager.createNativeQuery("LOCK TABLE estadisticas IN EXCLUSIVE MODE").executeUpdate();
+        return true;
+    }
+}
@@ -1,24 +1,60 @@
 package com.merca.merca.repository;
 
+import com.merca.merca.analytics.FilaAnalitica;
+import com.merca.merca.dto.ConteoAgrupado;
+import com.merca.merca.dto.ConteoProveedor;
+import com.merca.merca.dto.FormularioResumen;
+import com.merca.merca.dto.VersionFormulario;
 import com.merca.merca.entity.Formulario;
 import com.merca.merca.entity.Proveedor;
-import com.merca.merca.entity.Usuario;
+import com.merca.merca.index.EntradaIndice;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface FormularioRepository extends JpaRepository<Formulario, Long> {
+public interface FormularioRepository extends JpaRepository<Formulario, Long>, JpaSpecificationExecutor<Formulario>,
+        FormularioRepositoryCustom {
+
+    /**
+     * Proyección común de las consultas que devuelven {@link FormularioResumen}
+     */
+    String SELECT_RESUMEN = "SELECT new com.merca.merca.dto.FormularioResumen(f.id, f.nombreTienda, f.codigoTienda, " +
+            "p.nombre, f.areaAsignada, f.tipoEspacio, f.fechaInicio, f.fechaFin, f.estado, f.precioAcordado, " +
+            "f.fechaCreacion) FROM Formulario f JOIN f.proveedor p ";
+
+    /**
+     * Obtiene todos los formularios junto con su proveedor
+     */
+    @Override
+    @EntityGraph(Formulario.GRAFO_CON_PROVEEDOR)
+    List<Formulario> findAll();
+
+    /**
+     * Busca un formulario por ID junto con su proveedor
+     */
+    @EntityGraph(Formulario.GRAFO_CON_PROVEEDOR)
+    @Query("SELECT f FROM Formulario f WHERE f.id = :id")
+    Optional<Formulario> findConProveedorById(@Param("id") Long id);
 
     /**
      * Busca formularios por usuario
      */
-    List<Formulario> findByUsuario(Usuario usuario);
+    @EntityGraph(Formulario.GRAFO_CON_PROVEEDOR)
+    List<Formulario> findByUsuarioId(Long usuarioId);
 
     /**
      * Busca formularios por proveedor
@@ -51,6 +87,7 @@ public interface FormularioRepository extends JpaRepository<Formulario, Long> {
     /**
      * Busca formularios activos por tienda
      */
+    @EntityGraph(Formulario.GRAFO_CON_PROVEEDOR)
     @Query("SELECT f FROM Formulario f WHERE f.codigoTienda = :codigoTienda AND f.estado = 'ACTIVO' ORDER BY f.fechaCreacion DESC")
     List<Formulario> findFormulariosActivosByTienda(@Param("codigoTienda") String codigoTienda);
 
@@ -64,29 +101,11 @@ public interface FormularioRepository extends JpaRepository<Formulario, Long> {
     /**
      * Busca formularios próximos a vencer (en los próximos N días)
      */
+    @EntityGraph(Formulario.GRAFO_CON_PROVEEDOR)
     @Query("SELECT f FROM Formulario f WHERE f.fechaFin BETWEEN :hoy AND :fechaLimite AND f.estado = 'ACTIVO' ORDER BY f.fechaFin ASC")
     List<Formulario> findFormulariosProximosAVencer(@Param("hoy") LocalDate hoy, 
                                                    @Param("fechaLimite") LocalDate fechaLimite);
 
-    /**
-     * Búsqueda avanzada con múltiples filtros - TEMPORALMENTE DESHABILITADO
-     * Problema con tipos de datos en PostgreSQL
-     */
-    /*
-    @Query("SELECT f FROM Formulario f WHERE " +
-           "(:codigoTienda IS NULL OR f.codigoTienda = :codigoTienda) AND " +
-           "(:proveedorId IS NULL OR f.proveedor.id = :proveedorId) AND " +
-           "(:estado IS NULL OR f.estado = :estado) AND " +
-           "(:fechaInicio IS NULL OR f.fechaCreacion >= :fechaInicio) AND " +
-           "(:fechaFin IS NULL OR f.fechaCreacion <= :fechaFin) " +
-           "ORDER BY f.fechaCreacion DESC")
-    List<Formulario> buscarFormulariosConFiltros(@Param("codigoTienda") String codigoTienda,
-                                                @Param("proveedorId") Long proveedorId,
-                                                @Param("estado") Formulario.Estado estado,
-                                                @Param("fechaInicio") LocalDateTime fechaInicio,
-                                                @Param("fechaFin") LocalDateTime fechaFin);
-    */
-
     /**
      * Cuenta formularios por estado
      */
@@ -108,6 +127,7 @@ public interface FormularioRepository extends JpaRepository<Formulario, Long> {
     /**
      * Reporte de formularios por proveedor en un período
      */
+    @EntityGraph(Formulario.GRAFO_CON_PROVEEDOR)
     @Query("SELECT f FROM Formulario f WHERE f.proveedor.id = :proveedorId AND " +
            "f.fechaCreacion BETWEEN :fechaInicio AND :fechaFin " +
            "ORDER BY f.fechaCreacion DESC")
@@ -118,10 +138,92 @@ public interface FormularioRepository extends JpaRepository<Formulario, Long> {
     /**
      * Reporte de formularios por tienda en un período
      */
+    @EntityGraph(Formulario.GRAFO_CON_PROVEEDOR)
     @Query("SELECT f FROM Formulario f WHERE f.codigoTienda = :codigoTienda AND " +
            "f.fechaCreacion BETWEEN :fechaInicio AND :fechaFin " +
            "ORDER BY f.fechaCreacion DESC")
     List<Formulario> reporteFormulariosPorTiendaYPeriodo(@Param("codigoTienda") String codigoTienda,
                                                        @Param("fechaInicio") LocalDateTime fechaInicio,
                                                        @Param("fechaFin") LocalDateTime fechaFin);
+
+    /**
+     * Resúmenes de los formularios activos de una tienda
+     */
+    @Query(SELECT_RESUMEN + "WHERE f.codigoTienda = :codigoTienda AND f.estado = 'ACTIVO' ORDER BY f.fechaCreacion DESC")
+    List<FormularioResumen> findResumenesActivosByTienda(@Param("codigoTienda") String codigoTienda);
+
+    /**
+     * Resúmenes de los formularios de una tienda próximos a vencer
+     */
+    @Query(SELECT_RESUMEN + "WHERE f.codigoTienda = :codigoTienda AND " +
+           "f.fechaFin BETWEEN :hoy AND :fechaLimite AND f.estado = 'ACTIVO' ORDER BY f.fechaFin ASC")
+    List<FormularioResumen> findResumenesProximosAVencerPorTienda(@Param("codigoTienda") String codigoTienda,
+                                                                 @Param("hoy") LocalDate hoy,
+                                                                 @Param("fechaLimite") LocalDate fechaLimite);
+
+    /**
+     * Resúmenes de los formularios creados más recientemente
+     */
+    @Query(SELECT_RESUMEN + "ORDER BY f.fechaCreacion DESC, f.id DESC")
+    List<FormularioResumen> findResumenesRecientes(Pageable pageable);
+
+    /**
+     * Versión del detalle de un formulario (fechas de modificación del formulario y de su proveedor,
+     * usuario y tienda para el permiso de lectura), sin cargar la entidad
+     */
+    @Query("SELECT new com.merca.merca.dto.VersionFormulario(f.usuario.id, f.codigoTienda, " +
+           "COALESCE(f.fechaActualizacion, f.fechaCreacion), COALESCE(p.fechaActualizacion, p.fechaRegistro)) " +
+           "FROM Formulario f JOIN f.proveedor p WHERE f.id = :id")
+    Optional<VersionFormulario> findVersionById(@Param("id") Long id);
+
+    /**
+     * Fecha de la modificación más reciente de cualquier formulario (índice de la migración V8)
+     */
+    @Query("SELECT MAX(COALESCE(f.fechaActualizacion, f.fechaCreacion)) FROM Formulario f")
+    LocalDateTime findUltimaActualizacion();
+
+    /**
+     * Número de formularios por estado
+     */
+    @Query("SELECT new com.merca.merca.dto.ConteoAgrupado(f.estado, COUNT(f)) FROM Formulario f GROUP BY f.estado")
+    List<ConteoAgrupado<Formulario.Estado>> contarAgrupadosPorEstado();
+
+    /**
+     * Número de formularios por tipo de espacio, de mayor a menor
+     */
+    @Query("SELECT new com.merca.merca.dto.ConteoAgrupado(f.tipoEspacio, COUNT(f)) FROM Formulario f " +
+           "GROUP BY f.tipoEspacio ORDER BY COUNT(f) DESC")
+    List<ConteoAgrupado<Formulario.TipoEspacio>> contarAgrupadosPorTipoEspacio();
+
+    /**
+     * Proveedores con más formularios, de mayor a menor
+     */
+    @Query("SELECT new com.merca.merca.dto.ConteoProveedor(p.id, p.nombre, COUNT(f)) FROM Formulario f " +
+           "JOIN f.proveedor p GROUP BY p.id, p.nombre ORDER BY COUNT(f) DESC, p.nombre, p.id")
+    List<ConteoProveedor> contarAgrupadosPorProveedor(Pageable pageable);
+
+    /**
+     * Lee las columnas que usa la instantánea analítica, en flujo y por bloques.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.merca.merca.analytics.FilaAnalitica(f.codigoTienda, f.areaAsignada, p.id, p.nombre, " +
+           "f.estado, f.tipoEspacio, f.fechaInicio, f.fechaFin, f.fechaCreacion, f.precioAcordado, " +
+           "f.metrosCuadrados) FROM Formulario f JOIN f.proveedor p")
+    Stream<FilaAnalitica> streamFilasAnaliticas();
+
+    /**
+     * Lee los valores que guarda el índice de bitmaps, en flujo y en orden de id.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.merca.merca.index.EntradaIndice(f.id, f.codigoTienda, f.proveedor.id, f.estado, " +
+           "f.fechaCreacion) FROM Formulario f ORDER BY f.id")
+    Stream<EntradaIndice> streamEntradasIndice();
+
+    /**
+     * Códigos de tienda que aparecen en algún formulario (para autocompletar)
+     */
+    @Query("SELECT DISTINCT f.codigoTienda FROM Formulario f")
+    List<String> findCodigosTienda();
 }
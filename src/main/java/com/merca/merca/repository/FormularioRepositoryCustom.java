@@ -0,0 +1,47 @@
+package com.merca.merca.repository;
+
+import com.merca.merca.dto.ConteoAgrupado;
+import com.merca.merca.dto.FormularioResumen;
+import com.merca.merca.entity.Formulario;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Consultas de formularios que no se pueden expresar como métodos derivados
+ */
+public interface FormularioRepositoryCustom {
+
+    /**
+     * Lee una página de resúmenes de formularios que cumplen los filtros, en el orden indicado.
+     * Se pide una fila extra para saber si hay más resultados sin ejecutar un COUNT.
+     */
+    Slice<FormularioResumen> buscarPaginaResumen(Specification<Formulario> filtros, Sort orden, int tamano);
+
+    /**
+     * Lee en flujo los resúmenes de formularios que cumplen los filtros, en el orden indicado.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    Stream<FormularioResumen> streamResumenes(Specification<Formulario> filtros, Sort orden);
+
+    /**
+     * Reserva para la transacción actual el turno de marcar formularios vencidos, para que
+     * una sola instancia lo haga a la vez.
+     *
+     * @return false si otra instancia ya lo tiene
+     */
+    boolean tomarTurnoVencimiento();
+
+    /**
+     * Marca como vencidos, en un solo UPDATE, hasta {@code lote} formularios activos
+     * cuya fecha de fin es anterior a {@code hoy}. Usa el índice parcial sobre fecha_fin.
+     *
+     * @return cuántos formularios se marcaron en cada tienda
+     */
+    List<ConteoAgrupado<String>> marcarVencidos(LocalDate hoy, LocalDateTime ahora, int lote);
+}
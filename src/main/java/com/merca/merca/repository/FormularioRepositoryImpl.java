@@ -0,0 +1,158 @@
+package com.merca.merca.repository;
+
+import com.merca.merca.dto.ConteoAgrupado;
+import com.merca.merca.dto.FormularioResumen;
+import com.merca.merca.entity.Formulario;
+import com.merca.merca.entity.Proveedor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Implementación de {@link FormularioRepositoryCustom} con Criteria API.
+ * Selecciona solo las columnas de {@link FormularioResumen}, así que las filas
+ * no entran al contexto de persistencia.
+ * <p>
+ * El turno de vencimiento es un bloqueo asesor de PostgreSQL; con
+ * {@code app.bloqueos.postgresql=false} (p. ej. H2 en los tests) siempre se concede, y
+ * los vencidos se leen con SELECT ... FOR UPDATE antes de marcarlos, en vez de UPDATE ... RETURNING.
+ */
+class FormularioRepositoryImpl implements FormularioRepositoryCustom {
+
+    /**
+     * Filas que el driver trae por viaje al leer en flujo
+     */
+    private static final int TAMANO_LECTURA = 1000;
+
+    private static final String BLOQUEO_VENCIMIENTO = "formularios.vencimiento";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.bloqueos.postgresql:true}")
+    private boolean postgresql;
+
+    @Override
+    public Slice<FormularioResumen> buscarPaginaResumen(Specification<Formulario> filtros, Sort orden, int tamano) {
+        List<FormularioResumen> filas = new ArrayList<>(entityManager.createQuery(consultaResumen(filtros, orden))
+                .setMaxResults(tamano + 1)
+                .getResultList());
+        boolean hayMas = filas.size() > tamano;
+        if (hayMas) {
+            filas.remove(tamano);
+        }
+        return new SliceImpl<>(filas, PageRequest.of(0, tamano, orden), hayMas);
+    }
+
+    @Override
+    public Stream<FormularioResumen> streamResumenes(Specification<Formulario> filtros, Sort orden) {
+        return entityManager.createQuery(consultaResumen(filtros, orden))
+                .setHint(HibernateHints.HINT_FETCH_SIZE, TAMANO_LECTURA)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public boolean tomarTurnoVencimiento() {
+        if (!postgresql) {
+            return true;
+        }
+        return (Boolean) entityManager.createNativeQuery("SELECT pg_try_advisory_xact_lock(hashtext(:clave))")
+                .setParameter("clave", BLOQUEO_VENCIMIENTO)
+                .getSingleResult();
+    }
+
+    @Override
+    public List<ConteoAgrupado<String>> marcarVencidos(LocalDate hoy, LocalDateTime ahora, int lote) {
+        if (postgresql) {
+            // El UPDATE vuelve a exigir ACTIVO: una fila que otra transacción cambió entre tanto no se cuenta
+            List<?> filas = entityManager.createNativeQuery(
+                            "WITH vencidos AS (UPDATE formularios SET estado = 'VENCIDO', fecha_actualizacion = :ahora " +
+                            "WHERE estado = 'ACTIVO' AND id IN (SELECT id FROM formularios " +
+                            "WHERE estado = 'ACTIVO' AND fecha_fin < :hoy LIMIT :lote) RETURNING codigo_tienda) " +
+                            "SELECT codigo_tienda, COUNT(*) FROM vencidos GROUP BY codigo_tienda")
+                    .setParameter("ahora", ahora)
+                    .setParameter("hoy", hoy)
+                    .setParameter("lote", lote)
+                    .getResultList();
+            return filas.stream()
+                    .map(fila -> (Object[]) fila)
+                    .map(fila -> new ConteoAgrupado<>((String) fila[0], ((Number) fila[1]).longValue()))
+                    .toList();
+        }
+
+        List<?> filas = entityManager.createNativeQuery(
+                        "SELECT id, codigo_tienda FROM formularios WHERE estado = 'ACTIVO' AND fecha_fin < :hoy " +
+                        "ORDER BY id LIMIT :lote FOR UPDATE")
+                .setParameter("hoy", hoy)
+                .setParameter("lote", lote)
+                .getResultList();
+        if (filas.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(filas.size());
+        Map<String, Long> porTienda = new TreeMap<>();
+        for (Object fila : filas) {
+            Object[] columnas = (Object[]) fila;
+            ids.add(((Number) columnas[0]).longValue());
+            porTienda.merge((String) columnas[1], 1L, Long::sum);
+        }
+        entityManager.createNativeQuery("UPDATE formularios SET estado = 'VENCIDO', fecha_actualizacion = :ahora " +
+                                        "WHERE id IN (:ids)")
+                .setParameter("ahora", ahora)
+                .setParameter("ids", ids)
+                .executeUpdate();
+        return porTienda.entrySet().stream()
+                .map(entrada -> new ConteoAgrupado<>(entrada.getKey(), entrada.getValue()))
+                .toList();
+    }
+
+    private CriteriaQuery<FormularioResumen> consultaResumen(Specification<Formulario> filtros, Sort orden) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<FormularioResumen> query = cb.createQuery(FormularioResumen.class);
+        Root<Formulario> root = query.from(Formulario.class);
+        Join<Formulario, Proveedor> proveedor = root.join("proveedor");
+
+        query.select(cb.construct(FormularioResumen.class,
+                root.get("id"),
+                root.get("nombreTienda"),
+                root.get("codigoTienda"),
+                proveedor.get("nombre"),
+                root.get("areaAsignada"),
+                root.get("tipoEspacio"),
+                root.get("fechaInicio"),
+                root.get("fechaFin"),
+                root.get("estado"),
+                root.get("precioAcordado"),
+                root.get("fechaCreacion")));
+
+        if (filtros != null) {
+            Predicate predicado = filtros.toPredicate(root, query, cb);
+            if (predicado != null) {
+                query.where(predicado);
+            }
+        }
+        query.orderBy(QueryUtils.toOrders(orden, root, cb));
+        return query;
+    }
+}
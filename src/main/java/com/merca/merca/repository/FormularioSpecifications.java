@@ -0,0 +1,98 @@
+package com.merca.merca.repository;
+
+import com.merca.merca.entity.Formulario;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Predicados reutilizables para la búsqueda de formularios.
+ * Cada filtro nulo se traduce en un predicado vacío, de modo que la
+ * consulta resultante solo incluye las condiciones realmente solicitadas.
+ */
+public final class FormularioSpecifications {
+
+    private FormularioSpecifications() {
+    }
+
+    /**
+     * Combina todos los filtros de la pantalla de formularios
+     */
+    public static Specification<Formulario> conFiltros(String codigoTienda, Long proveedorId,
+                                                       Formulario.Estado estado, LocalDateTime fechaInicio,
+                                                       LocalDateTime fechaFin) {
+        return Specification.where(deTienda(codigoTienda))
+                .and(deProveedor(proveedorId))
+                .and(conEstado(estado))
+                .and(creadoDesde(fechaInicio))
+                .and(creadoHasta(fechaFin));
+    }
+
+    /**
+     * Formularios de una tienda
+     */
+    public static Specification<Formulario> deTienda(String codigoTienda) {
+        if (codigoTienda == null || codigoTienda.isBlank()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("codigoTienda"), codigoTienda);
+    }
+
+    /**
+     * Formularios de un proveedor (usa la llave foránea, sin unir la tabla de proveedores)
+     */
+    public static Specification<Formulario> deProveedor(Long proveedorId) {
+        if (proveedorId == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("proveedor").get("id"), proveedorId);
+    }
+
+    /**
+     * Formularios en un estado
+     */
+    public static Specification<Formulario> conEstado(Formulario.Estado estado) {
+        if (estado == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("estado"), estado);
+    }
+
+    /**
+     * Formularios creados a partir de una fecha (inclusive)
+     */
+    public static Specification<Formulario> creadoDesde(LocalDateTime fechaInicio) {
+        if (fechaInicio == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("fechaCreacion"), fechaInicio);
+    }
+
+    /**
+     * Formularios creados hasta una fecha (inclusive)
+     */
+    public static Specification<Formulario> creadoHasta(LocalDateTime fechaFin) {
+        if (fechaFin == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("fechaCreacion"), fechaFin);
+    }
+
+    /**
+     * Formularios que van después del cursor en el orden (fecha_creacion DESC, id DESC)
+     */
+    public static Specification<Formulario> posterioresA(LocalDateTime fechaCreacion, Long id) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("fechaCreacion"), fechaCreacion),
+                cb.and(cb.equal(root.get("fechaCreacion"), fechaCreacion), cb.lessThan(root.get("id"), id)));
+    }
+
+    /**
+     * Formularios que van antes del cursor en el orden (fecha_creacion DESC, id DESC)
+     */
+    public static Specification<Formulario> anterioresA(LocalDateTime fechaCreacion, Long id) {
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.get("fechaCreacion"), fechaCreacion),
+                cb.and(cb.equal(root.get("fechaCreacion"), fechaCreacion), cb.greaterThan(root.get("id"), id)));
+    }
+}
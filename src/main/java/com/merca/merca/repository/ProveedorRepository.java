@@ -1,16 +1,29 @@
 package com.merca.merca.repository;
 
+import com.merca.merca.dto.ConteoAgrupado;
+import com.merca.merca.dto.ProveedorOpcion;
+import com.merca.merca.dto.ProveedorResumen;
+import com.merca.merca.dto.VersionContenido;
 import com.merca.merca.entity.Proveedor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProveedorRepository extends JpaRepository<Proveedor, Long> {
+public interface ProveedorRepository extends JpaRepository<Proveedor, Long>, ProveedorRepositoryCustom {
 
     /**
      * Busca un proveedor por RFC
@@ -28,15 +41,80 @@ public interface ProveedorRepository extends JpaRepository<Proveedor, Long> {
     boolean existsByRfc(String rfc);
 
     /**
-     * Verifica si existe un proveedor con el email dado
+     * Verifica si existe un proveedor con el email dado, sin distinguir mayúsculas
+     * (índice sobre lower(email) de la migración V9)
      */
-    boolean existsByEmail(String email);
+    @Query("SELECT COUNT(p) > 0 FROM Proveedor p WHERE LOWER(p.email) = LOWER(:email)")
+    boolean existsByEmail(@Param("email") String email);
+
+    /**
+     * Todos los RFC registrados, para el filtro de unicidad en memoria.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.rfc FROM Proveedor p")
+    Stream<String> streamRfcs();
+
+    /**
+     * Todos los emails registrados en minúsculas, para el filtro de unicidad en memoria.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT LOWER(p.email) FROM Proveedor p WHERE p.email IS NOT NULL")
+    Stream<String> streamEmails();
+
+    /**
+     * Busca un proveedor por ID junto con sus formularios (página de detalle)
+     */
+    @EntityGraph(attributePaths = "formularios")
+    @Query("SELECT p FROM Proveedor p WHERE p.id = :id")
+    Optional<Proveedor> findConFormulariosById(@Param("id") Long id);
+
+    /**
+     * RFC del lote que ya están registrados (una sola consulta por lote de importación)
+     */
+    @Query("SELECT p.rfc FROM Proveedor p WHERE p.rfc IN :rfcs")
+    List<String> findRfcsRegistrados(@Param("rfcs") Collection<String> rfcs);
+
+    /**
+     * Emails del lote que ya están registrados, en minúsculas (una sola consulta por lote de
+     * importación). Los emails del lote deben venir en minúsculas.
+     */
+    @Query("SELECT LOWER(p.email) FROM Proveedor p WHERE LOWER(p.email) IN :emails")
+    List<String> findEmailsRegistrados(@Param("emails") Collection<String> emails);
 
     /**
      * Busca proveedores activos
      */
     List<Proveedor> findByEstado(Proveedor.Estado estado);
 
+    /**
+     * Primera página de proveedores por estado, ordenada por (nombre, id)
+     */
+    Slice<Proveedor> findByEstadoOrderByNombreAscIdAsc(Proveedor.Estado estado, Pageable pageable);
+
+    /**
+     * Página de proveedores por estado que siguen al cursor (nombre, id)
+     */
+    @Query("SELECT p FROM Proveedor p WHERE p.estado = :estado AND " +
+           "(p.nombre > :nombre OR (p.nombre = :nombre AND p.id > :id)) " +
+           "ORDER BY p.nombre ASC, p.id ASC")
+    Slice<Proveedor> findPaginaPorEstadoDespuesDe(@Param("estado") Proveedor.Estado estado,
+                                                  @Param("nombre") String nombre,
+                                                  @Param("id") Long id,
+                                                  Pageable pageable);
+
+    /**
+     * Página de proveedores por estado que preceden al cursor (nombre, id), en orden inverso
+     */
+    @Query("SELECT p FROM Proveedor p WHERE p.estado = :estado AND " +
+           "(p.nombre < :nombre OR (p.nombre = :nombre AND p.id < :id)) " +
+           "ORDER BY p.nombre DESC, p.id DESC")
+    Slice<Proveedor> findPaginaPorEstadoAntesDe(@Param("estado") Proveedor.Estado estado,
+                                                @Param("nombre") String nombre,
+                                                @Param("id") Long id,
+                                                Pageable pageable);
+
     /**
      * Busca proveedores por nombre (búsqueda parcial)
      */
@@ -56,15 +134,53 @@ public interface ProveedorRepository extends JpaRepository<Proveedor, Long> {
     List<Proveedor> findProveedoresActivosOrdenados();
 
     /**
-     * Búsqueda general por múltiples campos
+     * Opciones de proveedores activos ordenadas por nombre (para listas desplegables)
+     */
+    @Query("SELECT new com.merca.merca.dto.ProveedorOpcion(p.id, p.nombre, p.rfc) FROM Proveedor p " +
+           "WHERE p.estado = 'ACTIVO' ORDER BY p.nombre")
+    List<ProveedorOpcion> findOpcionesActivas();
+
+    /**
+     * Opción de un proveedor (para mostrar el proveedor ya elegido en un formulario)
+     */
+    @Query("SELECT new com.merca.merca.dto.ProveedorOpcion(p.id, p.nombre, p.rfc) FROM Proveedor p WHERE p.id = :id")
+    Optional<ProveedorOpcion> findOpcionById(@Param("id") Long id);
+
+    /**
+     * Resúmenes de los proveedores activos registrados más recientemente
+     */
+    @Query("SELECT new com.merca.merca.dto.ProveedorResumen(p.id, p.nombre, p.rfc, p.contactoPrincipal, p.estado, " +
+           "p.fechaRegistro) FROM Proveedor p WHERE p.estado = 'ACTIVO' ORDER BY p.fechaRegistro DESC, p.id DESC")
+    List<ProveedorResumen> findResumenesActivosRecientes(Pageable pageable);
+
+    /**
+     * Resúmenes de los proveedores registrados más recientemente, en cualquier estado
+     */
+    @Query("SELECT new com.merca.merca.dto.ProveedorResumen(p.id, p.nombre, p.rfc, p.contactoPrincipal, p.estado, " +
+           "p.fechaRegistro) FROM Proveedor p ORDER BY p.fechaRegistro DESC, p.id DESC")
+    List<ProveedorResumen> findResumenesRecientes(Pageable pageable);
+
+    /**
+     * Número de proveedores por estado
+     */
+    @Query("SELECT new com.merca.merca.dto.ConteoAgrupado(p.estado, COUNT(p)) FROM Proveedor p GROUP BY p.estado")
+    List<ConteoAgrupado<Proveedor.Estado>> contarAgrupadosPorEstado();
+
+    /**
+     * Versión del detalle de un proveedor: su fecha de modificación, la más reciente de sus
+     * formularios y cuántos tiene, sin cargar la entidad
+     */
+    @Query("SELECT new com.merca.merca.dto.VersionContenido(COALESCE(p.fechaActualizacion, p.fechaRegistro), " +
+           "MAX(COALESCE(f.fechaActualizacion, f.fechaCreacion)), COUNT(f)) " +
+           "FROM Proveedor p LEFT JOIN p.formularios f WHERE p.id = :id " +
+           "GROUP BY p.id, p.fechaActualizacion, p.fechaRegistro")
+    Optional<VersionContenido> findVersionById(@Param("id") Long id);
+
+    /**
+     * Fecha de la modificación más reciente de cualquier proveedor (índice de la migración V8)
      */
-    @Query("SELECT p FROM Proveedor p WHERE " +
-           "(LOWER(p.nombre) LIKE LOWER(CONCAT('%', :texto, '%')) OR " +
-           "LOWER(p.razonSocial) LIKE LOWER(CONCAT('%', :texto, '%')) OR " +
-           "LOWER(p.rfc) LIKE LOWER(CONCAT('%', :texto, '%')) OR " +
-           "LOWER(p.contactoPrincipal) LIKE LOWER(CONCAT('%', :texto, '%'))) " +
-           "AND p.estado = :estado ORDER BY p.nombre")
-    List<Proveedor> buscarProveedores(@Param("texto") String texto, @Param("estado") Proveedor.Estado estado);
+    @Query("SELECT MAX(COALESCE(p.fechaActualizacion, p.fechaRegistro)) FROM Proveedor p")
+    LocalDateTime findUltimaActualizacion();
 
     /**
      * Cuenta proveedores por estado
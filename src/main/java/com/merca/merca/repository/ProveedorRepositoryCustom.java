@@ -0,0 +1,19 @@
+package com.merca.merca.repository;
+
+import com.merca.merca.entity.Proveedor;
+
+import java.util.List;
+
+/**
+ * Consultas de proveedores que no se pueden expresar como métodos derivados
+ */
+public interface ProveedorRepositoryCustom {
+
+    /**
+     * Busca proveedores de un estado cuyo nombre, razón social, RFC o contacto contenga el
+     * texto o se le parezca, ordenados del más al menos parecido.
+     *
+     * @param limite máximo de proveedores devueltos
+     */
+    List<Proveedor> buscarPorTexto(String texto, Proveedor.Estado estado, int limite);
+}
@@ -0,0 +1,58 @@
+package com.merca.merca.repository;
+
+import com.merca.merca.entity.Proveedor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.List;
+
+/**
+ * Implementación de {@link ProveedorRepositoryCustom}.
+ * <p>
+ * En PostgreSQL la búsqueda usa la columna {@code texto_busqueda} (sin acentos, en minúsculas)
+ * y su índice GIN de trigramas: encuentra coincidencias parciales y errores de escritura, y
+ * ordena por {@code word_similarity}. Con {@code app.busqueda.trigramas=false} (p. ej. H2 en
+ * los tests) se usa un LIKE sobre cada columna, sin ranking ni plegado de acentos.
+ */
+class ProveedorRepositoryImpl implements ProveedorRepositoryCustom {
+
+    private static final String BUSQUEDA_TRIGRAMAS =
+            "WITH q AS (SELECT normalizar_busqueda(:texto) AS t) " +
+            "SELECT p.* FROM proveedores p, q " +
+            "WHERE p.estado = :estado " +
+            "AND (p.texto_busqueda LIKE '%' || q.t || '%' OR q.t <% p.texto_busqueda) " +
+            "ORDER BY word_similarity(q.t, p.texto_busqueda) DESC, p.nombre " +
+            "LIMIT :limite";
+
+    private static final String BUSQUEDA_LIKE =
+            "SELECT p FROM Proveedor p WHERE " +
+            "(LOWER(p.nombre) LIKE LOWER(CONCAT('%', :texto, '%')) OR " +
+            "LOWER(p.razonSocial) LIKE LOWER(CONCAT('%', :texto, '%')) OR " +
+            "LOWER(p.rfc) LIKE LOWER(CONCAT('%', :texto, '%')) OR " +
+            "LOWER(p.contactoPrincipal) LIKE LOWER(CONCAT('%', :texto, '%'))) " +
+            "AND p.estado = :estado ORDER BY p.nombre";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.busqueda.trigramas:true}")
+    private boolean trigramas;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Proveedor> buscarPorTexto(String texto, Proveedor.Estado estado, int limite) {
+        if (trigramas) {
+            return entityManager.createNativeQuery(BUSQUEDA_TRIGRAMAS, Proveedor.class)
+                    .setParameter("texto", texto)
+                    .setParameter("estado", estado.name())
+                    .setParameter("limite", limite)
+                    .getResultList();
+        }
+        return entityManager.createQuery(BUSQUEDA_LIKE, Proveedor.class)
+                .setParameter("texto", texto)
+                .setParameter("estado", estado)
+                .setMaxResults(limite)
+                .getResultList();
+    }
+}
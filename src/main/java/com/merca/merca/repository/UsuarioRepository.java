@@ -1,16 +1,22 @@
 package com.merca.merca.repository;
 
 import com.merca.merca.entity.Usuario;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
+public interface UsuarioRepository extends JpaRepository<Usuario, Long>, UsuarioRepositoryCustom {
 
     /**
      * Busca un usuario por su nombre de usuario
@@ -32,6 +38,22 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
      */
     boolean existsByEmail(String email);
 
+    /**
+     * Todos los usernames registrados, para el filtro de unicidad en memoria.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.username FROM Usuario u")
+    Stream<String> streamUsernames();
+
+    /**
+     * Todos los emails registrados, para el filtro de unicidad en memoria.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.email FROM Usuario u")
+    Stream<String> streamEmails();
+
     /**
      * Busca usuarios activos por rol
      */
@@ -64,4 +86,25 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
      */
     @Query("SELECT u FROM Usuario u WHERE u.rol = 'TIENDA' AND u.tiendaAsignada = :tienda AND u.activo = true")
     List<Usuario> findUsuariosTiendaByTienda(@Param("tienda") String tienda);
+
+    /**
+     * Primera página de usuarios ordenada por id
+     */
+    Slice<Usuario> findAllByOrderByIdAsc(Pageable pageable);
+
+    /**
+     * Página de usuarios que siguen al cursor
+     */
+    Slice<Usuario> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Página de usuarios que preceden al cursor, en orden inverso
+     */
+    Slice<Usuario> findByIdLessThanOrderByIdDesc(Long id, Pageable pageable);
+
+    /**
+     * Tiendas asignadas a algún usuario (para autocompletar)
+     */
+    @Query("SELECT DISTINCT u.tiendaAsignada FROM Usuario u WHERE u.tiendaAsignada IS NOT NULL")
+    List<String> findTiendasAsignadas();
 }
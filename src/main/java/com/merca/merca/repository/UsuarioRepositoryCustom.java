@@ -0,0 +1,19 @@
+package com.merca.merca.repository;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Escrituras de usuarios que no se pueden expresar como métodos derivados
+ */
+public interface UsuarioRepositoryCustom {
+
+    /**
+     * Actualiza la fecha de último acceso de varios usuarios en un solo lote JDBC.
+     * Una fecha solo se escribe si es posterior a la guardada.
+     *
+     * @param accesos fecha de último acceso por id de usuario
+     * @return filas actualizadas
+     */
+    int actualizarUltimosAccesos(Map<Long, LocalDateTime> accesos);
+}
@@ -0,0 +1,66 @@
+package com.merca.merca.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Calendar;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Implementación de {@link UsuarioRepositoryCustom}.
+ * <p>
+ * Los últimos accesos se escriben con un único PreparedStatement en lote sobre la
+ * conexión de la transacción actual: un viaje a la base de datos sin importar cuántos
+ * usuarios entraron, y sin cargar las entidades.
+ */
+class UsuarioRepositoryImpl implements UsuarioRepositoryCustom {
+
+    private static final String ACTUALIZAR_ULTIMO_ACCESO =
+            "UPDATE usuarios SET fecha_ultimo_acceso = ? " +
+            "WHERE id = ? AND (fecha_ultimo_acceso IS NULL OR fecha_ultimo_acceso < ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int actualizarUltimosAccesos(Map<Long, LocalDateTime> accesos) {
+        if (accesos.isEmpty()) {
+            return 0;
+        }
+        Session session = entityManager.unwrap(Session.class);
+        // Se usa la misma zona que Hibernate (hibernate.jdbc.time_zone) para que las fechas escritas
+        // aquí y la comparación con las guardadas por las entidades no queden desfasadas
+        TimeZone zonaJdbc = session.getSessionFactory().getSessionFactoryOptions().getJdbcTimeZone();
+        return session.doReturningWork(connection -> {
+            try (PreparedStatement update = connection.prepareStatement(ACTUALIZAR_ULTIMO_ACCESO)) {
+                for (Map.Entry<Long, LocalDateTime> acceso : accesos.entrySet()) {
+                    Timestamp fecha = Timestamp.valueOf(acceso.getValue());
+                    fijarFecha(update, 1, fecha, zonaJdbc);
+                    update.setLong(2, acceso.getKey());
+                    fijarFecha(update, 3, fecha, zonaJdbc);
+                    update.addBatch();
+                }
+                int total = 0;
+                for (int filas : update.executeBatch()) {
+                    total += Math.max(filas, 0);
+                }
+                return total;
+            }
+        });
+    }
+
+    private static void fijarFecha(PreparedStatement update, int indice, Timestamp fecha, TimeZone zona)
+            throws SQLException {
+        if (zona == null) {
+            update.setTimestamp(indice, fecha);
+        } else {
+            update.setTimestamp(indice, fecha, Calendar.getInstance(zona));
+        }
+    }
+}
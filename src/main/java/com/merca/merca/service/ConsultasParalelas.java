@@ -0,0 +1,174 @@
+package com.merca.merca.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta a la vez las lecturas independientes de una pantalla, cada una en su propia
+ * transacción de solo lectura, y espera a todas con un plazo común. Así la página tarda
+ * lo que su consulta más lenta y no la suma de todas.
+ * Las consultas corren fuera del hilo de la petición: deben devolver DTOs, no entidades
+ * con asociaciones perezosas.
+ * <p>
+ * Usan un pool propio, más chico que el de conexiones, para que siempre queden conexiones
+ * para las peticiones. El pool no tiene cola: si no hay un hilo libre, la consulta corre en
+ * el hilo que la envía, y el plazo nunca incluye tiempo de espera en cola.
+ */
+@Component
+public class ConsultasParalelas {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsultasParalelas.class);
+
+    private final ExecutorService ejecutor;
+
+    private final TransactionTemplate lectura;
+
+    private final long plazoMs;
+
+    /**
+     * Crea el pool con los hilos configurados; publica sus métricas como executor.* con name=consultas-paralelas
+     */
+    @Autowired
+    public ConsultasParalelas(@Value("${app.consultas-paralelas.hilos:4}") int hilos,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.consultas-paralelas.plazo-ms:5000}") long plazoMs,
+                              MeterRegistry meterRegistry) {
+        this(crearPool(hilos), transactionManager, plazoMs);
+        new ExecutorServiceMetrics(ejecutor, "consultas-paralelas", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    public ConsultasParalelas(ExecutorService ejecutor,
+                              PlatformTransactionManager transactionManager,
+                              long plazoMs) {
+        this.ejecutor = ejecutor;
+        this.plazoMs = plazoMs;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+        // El plazo también se aplica a las sentencias, para que no sigan en la base de datos tras cancelarlas
+        this.lectura.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(plazoMs + 999)));
+    }
+
+    private static ThreadPoolExecutor crearPool(int hilos) {
+        AtomicInteger numeroHilo = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(hilos, hilos, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), tarea -> {
+                    Thread hilo = new Thread(tarea, "consulta-paralela-" + numeroHilo.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Nuevo grupo de consultas; se envían con {@link Lote#enviar} y se esperan con {@link Lote#esperar}
+     */
+    public Lote nuevoLote() {
+        return new Lote();
+    }
+
+    /**
+     * Resultado de una consulta enviada; solo se lee después de {@link Lote#esperar}
+     */
+    public static final class Pendiente<T> {
+
+        private final Future<T> futuro;
+
+        private Pendiente(Future<T> futuro) {
+            this.futuro = futuro;
+        }
+
+        public T get() {
+            if (!futuro.isDone()) {
+                throw new IllegalStateException("La consulta aún no termina: falta llamar a esperar()");
+            }
+            try {
+                return futuro.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Consulta interrumpida", e);
+            } catch (ExecutionException e) {
+                throw comoRuntime(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Consultas de una misma petición, con un plazo común
+     */
+    public final class Lote {
+
+        private final List<Future<?>> futuros = new ArrayList<>();
+
+        private Lote() {
+        }
+
+        /**
+         * Inicia la consulta en otro hilo, dentro de una transacción de solo lectura.
+         * Con todos los hilos ocupados la consulta se ejecuta aquí mismo antes de volver.
+         */
+        public <T> Pendiente<T> enviar(Supplier<T> consulta) {
+            Future<T> futuro = ejecutor.submit(() -> lectura.execute(status -> consulta.get()));
+            futuros.add(futuro);
+            return new Pendiente<>(futuro);
+        }
+
+        /**
+         * Espera a que terminen todas las consultas. Si alguna falla o se agota el plazo,
+         * cancela las que sigan en curso y propaga el error.
+         */
+        public void esperar() {
+            long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(plazoMs);
+            try {
+                for (Future<?> futuro : futuros) {
+                    futuro.get(Math.max(0, limite - System.nanoTime()), TimeUnit.NANOSECONDS);
+                }
+            } catch (TimeoutException e) {
+                cancelar();
+                log.warn("{} consulta(s) en paralelo no terminaron en {} ms", futuros.size(), plazoMs);
+                throw new RuntimeException("Las consultas no terminaron en " + plazoMs + " ms", e);
+            } catch (InterruptedException e) {
+                cancelar();
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Consulta interrumpida", e);
+            } catch (ExecutionException e) {
+                cancelar();
+                throw comoRuntime(e.getCause());
+            }
+        }
+
+        private void cancelar() {
+            futuros.forEach(futuro -> futuro.cancel(true));
+        }
+    }
+
+    private static RuntimeException comoRuntime(Throwable causa) {
+        if (causa instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (causa instanceof Error error) {
+            throw error;
+        }
+        return new RuntimeException("Error en una consulta en paralelo", causa);
+    }
+}
@@ -0,0 +1,42 @@
+package com.merca.merca.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posición dentro de un listado paginado por llave (keyset / seek).
+ * Guarda el valor de la columna de orden y el id de la última fila vista,
+ * y se transporta en la URL como un texto opaco en Base64.
+ */
+public record CursorKeyset(String clave, Long id) {
+
+    private static final char SEPARADOR = '|';
+
+    /**
+     * Codifica el cursor para usarlo como parámetro de URL
+     */
+    public String codificar() {
+        String valor = (clave != null ? clave : "") + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor recibido en la URL; devuelve null si no es válido
+     */
+    public static CursorKeyset decodificar(String valor) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(valor), StandardCharsets.UTF_8);
+            int separador = texto.lastIndexOf(SEPARADOR);
+            if (separador < 0) {
+                return null;
+            }
+            return new CursorKeyset(texto.substring(0, separador), Long.valueOf(texto.substring(separador + 1)));
+        } catch (IllegalArgumentException e) {
+            // Cursor manipulado o truncado: se trata como primera página
+            return null;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.merca.merca.service;
+
+import com.merca.merca.dto.DashboardAdmin;
+import com.merca.merca.dto.FormularioResumen;
+import com.merca.merca.dto.ProveedorResumen;
+import com.merca.merca.repository.FormularioRepository;
+import com.merca.merca.repository.ProveedorRepository;
+import com.merca.merca.repository.UsuarioRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Arma los datos del dashboard del administrador con conteos y consultas
+ * limitadas a las filas que se muestran. El resultado se guarda unos
+ * segundos para que varios inicios de sesión seguidos no repitan las consultas.
+ * Las consultas se lanzan en paralelo; los totales de proveedores y
+ * formularios salen de la tabla de estadísticas.
+ */
+@Service
+public class DashboardService {
+
+    /**
+     * Filas que muestra cada tabla del dashboard
+     */
+    private static final int FILAS_RECIENTES = 5;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private ProveedorRepository proveedorRepository;
+
+    @Autowired
+    private FormularioRepository formularioRepository;
+
+    @Autowired
+    private EstadisticaService estadisticaService;
+
+    @Autowired
+    private ConsultasParalelas consultasParalelas;
+
+    @Value("${app.dashboard.ttl-segundos:30}")
+    private long ttlSegundos;
+
+    private final AtomicReference<DashboardAdmin> ultimo = new AtomicReference<>();
+
+    /**
+     * Datos del dashboard del administrador, recalculados si los guardados ya expiraron
+     */
+    public DashboardAdmin obtenerDashboardAdmin() {
+        DashboardAdmin actual = ultimo.get();
+        if (actual != null && actual.generadoEn().plusSeconds(ttlSegundos).isAfter(LocalDateTime.now())) {
+            return actual;
+        }
+        DashboardAdmin nuevo = calcular();
+        ultimo.set(nuevo);
+        return nuevo;
+    }
+
+    private DashboardAdmin calcular() {
+        PageRequest recientes = PageRequest.of(0, FILAS_RECIENTES);
+        ConsultasParalelas.Lote lote = consultasParalelas.nuevoLote();
+        ConsultasParalelas.Pendiente<Long> totalUsuarios = lote.enviar(usuarioRepository::count);
+        ConsultasParalelas.Pendiente<List<ProveedorResumen>> proveedoresRecientes =
+                lote.enviar(() -> proveedorRepository.findResumenesActivosRecientes(recientes));
+        ConsultasParalelas.Pendiente<List<FormularioResumen>> formulariosRecientes =
+                lote.enviar(() -> formularioRepository.findResumenesRecientes(recientes));
+        ConsultasParalelas.Pendiente<Long> totalProveedores = lote.enviar(estadisticaService::contarTotalProveedores);
+        ConsultasParalelas.Pendiente<Long> totalFormularios = lote.enviar(estadisticaService::contarTotalFormularios);
+        lote.esperar();
+        return new DashboardAdmin(
+                totalUsuarios.get(),
+                totalProveedores.get(),
+                totalFormularios.get(),
+                proveedoresRecientes.get(),
+                formulariosRecientes.get(),
+                LocalDateTime.now());
+    }
+}
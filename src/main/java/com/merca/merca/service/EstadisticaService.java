@@ -0,0 +1,259 @@
+package com.merca.merca.service;
+
+import com.merca.merca.dto.ConteoAgrupado;
+import com.merca.merca.entity.Formulario;
+import com.merca.merca.entity.Proveedor;
+import com.merca.merca.repository.EstadisticaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Contadores de formularios por (tienda, estado) y de proveedores por estado,
+ * guardados en la tabla estadisticas. Los servicios que cambian estados los
+ * ajustan dentro de su misma transacción, así que leer una estadística es una
+ * búsqueda por llave primaria en lugar de un COUNT sobre la tabla completa.
+ * <p>
+ * Una transacción ajusta sus contadores siempre en orden de clave, para que dos
+ * cambios opuestos (p. ej. ACTIVO a VENCIDO y VENCIDO a ACTIVO) no se bloqueen mutuamente.
+ */
+@Service
+@Transactional
+public class EstadisticaService {
+
+    private static final Logger log = LoggerFactory.getLogger(EstadisticaService.class);
+
+    /**
+     * Código de tienda usado para los contadores globales de formularios
+     */
+    private static final String TODAS_LAS_TIENDAS = "*";
+
+    /**
+     * Máximo que un recálculo espera su turno y a las transacciones que están ajustando contadores
+     */
+    private static final Duration ESPERA_RECALCULO = Duration.ofSeconds(5);
+
+    @Autowired
+    private EstadisticaRepository estadisticaRepository;
+
+    private final TransactionTemplate transaccionNueva;
+
+    private final TransactionTemplate transaccionRecalculo;
+
+    public EstadisticaService(PlatformTransactionManager transactionManager) {
+        this.transaccionNueva = new TransactionTemplate(transactionManager);
+        this.transaccionNueva.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transaccionRecalculo = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Número de formularios en un estado; si la tienda es nula cuenta todas las tiendas
+     */
+    public long contarFormularios(String codigoTienda, Formulario.Estado estado) {
+        return obtener(claveFormulario(codigoTienda, estado));
+    }
+
+    /**
+     * Número de proveedores en un estado
+     */
+    public long contarProveedores(Proveedor.Estado estado) {
+        return obtener(claveProveedor(estado));
+    }
+
+    /**
+     * Número total de formularios (suma de los contadores globales por estado)
+     */
+    public long contarTotalFormularios() {
+        long total = 0;
+        for (Formulario.Estado estado : Formulario.Estado.values()) {
+            total += contarFormularios(null, estado);
+        }
+        return total;
+    }
+
+    /**
+     * Número total de proveedores (suma de los contadores por estado)
+     */
+    public long contarTotalProveedores() {
+        long total = 0;
+        for (Proveedor.Estado estado : Proveedor.Estado.values()) {
+            total += contarProveedores(estado);
+        }
+        return total;
+    }
+
+    /**
+     * Ajusta los contadores cuando un formulario se crea (anterior nulo), cambia de
+     * tienda o estado, o se elimina (nuevo nulo). Debe llamarse dentro de la
+     * transacción que hace el cambio.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarCambioFormulario(String tiendaAnterior, Formulario.Estado estadoAnterior,
+                                          String tiendaNueva, Formulario.Estado estadoNuevo) {
+        boolean mismaTienda = tiendaAnterior != null && tiendaAnterior.equals(tiendaNueva);
+        Map<String, Long> ajustes = new TreeMap<>();
+        if (estadoAnterior != estadoNuevo) {
+            agregarAjuste(ajustes, claveFormulario(null, estadoAnterior), -1);
+            agregarAjuste(ajustes, claveFormulario(null, estadoNuevo), 1);
+        } else if (mismaTienda) {
+            return;
+        }
+        agregarAjuste(ajustes, claveFormulario(tiendaAnterior, estadoAnterior), -1);
+        agregarAjuste(ajustes, claveFormulario(tiendaNueva, estadoNuevo), 1);
+        aplicar(ajustes);
+    }
+
+    /**
+     * Ajusta los contadores cuando un proveedor se crea, cambia de estado o se elimina.
+     * Debe llamarse dentro de la transacción que hace el cambio.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarCambioProveedor(Proveedor.Estado estadoAnterior, Proveedor.Estado estadoNuevo) {
+        if (estadoAnterior == estadoNuevo) {
+            return;
+        }
+        Map<String, Long> ajustes = new TreeMap<>();
+        agregarAjuste(ajustes, claveProveedor(estadoAnterior), -1);
+        agregarAjuste(ajustes, claveProveedor(estadoNuevo), 1);
+        aplicar(ajustes);
+    }
+
+    /**
+     * Suma de una vez las altas de varios proveedores en el mismo estado (importación masiva).
+     * Debe llamarse dentro de la transacción que los inserta.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarAltasProveedores(Proveedor.Estado estado, long cantidad) {
+        if (cantidad > 0) {
+            sumar(claveProveedor(estado), cantidad);
+        }
+    }
+
+    /**
+     * Pasa de ACTIVO a VENCIDO los formularios que marcó un lote del vencimiento, por tienda.
+     * Debe llamarse dentro de la transacción del lote.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarVencimientos(List<ConteoAgrupado<String>> vencidosPorTienda) {
+        Map<String, Long> ajustes = new TreeMap<>();
+        for (ConteoAgrupado<String> vencidos : vencidosPorTienda) {
+            agregarAjuste(ajustes, claveFormulario(vencidos.clave(), Formulario.Estado.ACTIVO), -vencidos.total());
+            agregarAjuste(ajustes, claveFormulario(vencidos.clave(), Formulario.Estado.VENCIDO), vencidos.total());
+            agregarAjuste(ajustes, claveFormulario(null, Formulario.Estado.ACTIVO), -vencidos.total());
+            agregarAjuste(ajustes, claveFormulario(null, Formulario.Estado.VENCIDO), vencidos.total());
+        }
+        aplicar(ajustes);
+    }
+
+    /**
+     * Reparación manual: recalcula todos los contadores a partir de las tablas (p. ej. tras
+     * modificar datos a mano en la base). Si otra instancia está recalculando, espera a que
+     * termine y vuelve a recalcular, para incluir los cambios que ya confirmó quien llama.
+     *
+     * @return false si las tablas siguieron ocupadas y no se recalculó
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public boolean reconstruir() {
+        return recalcular(true);
+    }
+
+    /**
+     * Al iniciar basta con un recálculo: si otra instancia ya lo está haciendo, esta no repite
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void reconstruirAlIniciar() {
+        recalcular(false);
+    }
+
+    private boolean recalcular(boolean esperarTurno) {
+        try {
+            // Sin transacción abierta, los bloqueos duran solo lo que dura el recálculo
+            Integer claves = transaccionRecalculo.execute(status -> {
+                if (!estadisticaRepository.bloquearParaRecalculo(esperarTurno, ESPERA_RECALCULO)) {
+                    return null;
+                }
+                estadisticaRepository.eliminarTodas();
+                return estadisticaRepository.insertarConteosFormulariosPorTienda()
+                        + estadisticaRepository.insertarConteosFormularios()
+                        + estadisticaRepository.insertarConteosProveedores();
+            });
+            if (claves == null) {
+                log.info("Otra instancia está recalculando las estadísticas; se omite el recálculo");
+            } else {
+                log.info("Estadísticas recalculadas: {} contadores", claves);
+            }
+            return true;
+        } catch (PessimisticLockingFailureException e) {
+            log.warn("No se recalcularon las estadísticas: la tabla siguió ocupada {} s",
+                    ESPERA_RECALCULO.toSeconds(), e);
+            return false;
+        }
+    }
+
+    private long obtener(String clave) {
+        return estadisticaRepository.findTotalByClave(clave).orElse(0L);
+    }
+
+    private static void agregarAjuste(Map<String, Long> ajustes, String clave, long delta) {
+        if (clave != null) {
+            ajustes.merge(clave, delta, Long::sum);
+        }
+    }
+
+    private void aplicar(Map<String, Long> ajustes) {
+        ajustes.forEach((clave, delta) -> {
+            if (delta != 0) {
+                sumar(clave, delta);
+            }
+        });
+    }
+
+    private void sumar(String clave, long delta) {
+        if (clave == null) {
+            return;
+        }
+        if (estadisticaRepository.incrementar(clave, delta) == 0) {
+            crearContador(clave);
+            estadisticaRepository.incrementar(clave, delta);
+        }
+    }
+
+    /**
+     * Crea un contador nuevo en su propia transacción, para que si otra transacción
+     * lo crea al mismo tiempo el choque de llave no aborte la transacción del llamador.
+     */
+    private void crearContador(String clave) {
+        try {
+            transaccionNueva.executeWithoutResult(status -> estadisticaRepository.crearSiNoExiste(clave));
+        } catch (DataIntegrityViolationException e) {
+            // Otra transacción ya creó el contador
+        }
+    }
+
+    private static String claveFormulario(String codigoTienda, Formulario.Estado estado) {
+        if (estado == null) {
+            return null;
+        }
+        return "FORMULARIO|" + (codigoTienda != null ? codigoTienda : TODAS_LAS_TIENDAS) + "|" + estado.name();
+    }
+
+    private static String claveProveedor(Proveedor.Estado estado) {
+        return estado != null ? "PROVEEDOR|" + estado.name() : null;
+    }
+}
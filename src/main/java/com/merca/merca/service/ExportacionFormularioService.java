@@ -0,0 +1,120 @@
+package com.merca.merca.service;
+
+import com.merca.merca.dto.FormularioResumen;
+import com.merca.merca.entity.Formulario;
+import com.merca.merca.repository.FormularioRepository;
+import com.merca.merca.repository.FormularioSpecifications;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exporta a CSV los formularios que cumplen los filtros del listado. Las filas se leen
+ * en flujo y se escriben conforme llegan, así que la memoria usada no depende de
+ * cuántos formularios se exporten y el navegador empieza a recibir datos de inmediato.
+ */
+@Service
+public class ExportacionFormularioService {
+
+    /**
+     * Cada cuántas filas se envía lo escrito al cliente
+     */
+    private static final int FILAS_POR_ENVIO = 500;
+
+    private static final String ENCABEZADO = "ID,Tienda,Código tienda,Proveedor,Área asignada,Tipo de espacio,"
+            + "Fecha inicio,Fecha fin,Estado,Precio acordado,Fecha creación";
+
+    private static final Sort ORDEN = Sort.by(Sort.Order.desc("fechaCreacion"), Sort.Order.desc("id"));
+
+    @Autowired
+    private FormularioRepository formularioRepository;
+
+    private final TransactionTemplate transaccionLectura;
+
+    public ExportacionFormularioService(PlatformTransactionManager transactionManager) {
+        this.transaccionLectura = new TransactionTemplate(transactionManager);
+        this.transaccionLectura.setReadOnly(true);
+    }
+
+    /**
+     * Escribe el CSV en la salida indicada. Se ejecuta en su propia transacción de solo
+     * lectura porque se llama desde el hilo que escribe la respuesta, fuera del controlador.
+     *
+     * @return número de formularios exportados
+     */
+    public long exportarCsv(String codigoTienda, Long proveedorId, Formulario.Estado estado,
+                            LocalDateTime fechaInicio, LocalDateTime fechaFin, OutputStream salida) {
+        Long total = transaccionLectura.execute(status -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+            try (Stream<FormularioResumen> filas = formularioRepository.streamResumenes(
+                    FormularioSpecifications.conFiltros(codigoTienda, proveedorId, estado, fechaInicio, fechaFin),
+                    ORDEN)) {
+                // BOM para que Excel reconozca los acentos
+                writer.write('\uFEFF');
+                writer.write(ENCABEZADO);
+                writer.write("\r\n");
+
+                long escritas = 0;
+                Iterator<FormularioResumen> iterador = filas.iterator();
+                while (iterador.hasNext()) {
+                    escribirFila(writer, iterador.next());
+                    if (++escritas % FILAS_POR_ENVIO == 0) {
+                        writer.flush();
+                    }
+                }
+                writer.flush();
+                return escritas;
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo escribir la exportación de formularios", e);
+            }
+        });
+        return total != null ? total : 0;
+    }
+
+    private static void escribirFila(Writer writer, FormularioResumen formulario) throws IOException {
+        writer.write(String.join(",",
+                String.valueOf(formulario.id()),
+                campo(formulario.nombreTienda()),
+                campo(formulario.codigoTienda()),
+                campo(formulario.proveedorNombre()),
+                campo(formulario.areaAsignada()),
+                campo(formulario.tipoEspacio() != null ? formulario.tipoEspacio().getDescripcion() : null),
+                campo(formulario.fechaInicio()),
+                campo(formulario.fechaFin()),
+                campo(formulario.estado()),
+                campo(formulario.precioAcordado()),
+                campo(formulario.fechaCreacion())));
+        writer.write("\r\n");
+    }
+
+    /**
+     * Escapa un valor según RFC 4180. Los textos que empiezan como fórmula se
+     * anteponen con un apóstrofo para que la hoja de cálculo no los evalúe.
+     */
+    static String campo(Object valor) {
+        if (valor == null) {
+            return "";
+        }
+        String texto = valor.toString();
+        if (valor instanceof String && !texto.isEmpty() && "=+-@".indexOf(texto.charAt(0)) >= 0) {
+            texto = "'" + texto;
+        }
+        if (texto.indexOf(',') >= 0 || texto.indexOf('"') >= 0 || texto.indexOf('\n') >= 0 || texto.indexOf('\r') >= 0) {
+            return '"' + texto.replace("\"", "\"\"") + '"';
+        }
+        return texto;
+    }
+}
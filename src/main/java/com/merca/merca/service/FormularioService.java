@@ -1,25 +1,81 @@
 package com.merca.merca.service;
 
+import com.merca.merca.dto.FormularioResumen;
+import com.merca.merca.dto.UsuarioPrincipal;
+import com.merca.merca.dto.VersionContenido;
+import com.merca.merca.dto.VersionFormulario;
 import com.merca.merca.entity.Formulario;
 import com.merca.merca.entity.Proveedor;
 import com.merca.merca.entity.Usuario;
+import com.merca.merca.index.EntradaIndice;
+import com.merca.merca.index.IndiceAutocompletado;
+import com.merca.merca.index.IndiceBitmapFormularios;
 import com.merca.merca.repository.FormularioRepository;
+import com.merca.merca.repository.FormularioSpecifications;
+import com.merca.merca.repository.UsuarioRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 @Transactional
 public class FormularioService {
 
+    /**
+     * Filas por página en el listado de formularios
+     */
+    private static final int TAMANO_PAGINA = 25;
+
+    private static final Sort ORDEN_RECIENTES = Sort.by(Sort.Order.desc("fechaCreacion"), Sort.Order.desc("id"));
+
+    private static final Sort ORDEN_ANTIGUOS = Sort.by(Sort.Order.asc("fechaCreacion"), Sort.Order.asc("id"));
+
     @Autowired
     private FormularioRepository formularioRepository;
 
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private VencimientoFormularioService vencimientoFormularioService;
+
+    @Autowired
+    private EstadisticaService estadisticaService;
+
+    @Autowired
+    private IndiceBitmapFormularios indiceFormularios;
+
+    @Autowired
+    private IndiceAutocompletado indiceAutocompletado;
+
+    /**
+     * Zona en la que se decide qué día es hoy, la misma del proceso de vencimiento
+     */
+    @Value("${app.vencimiento.zona:America/Mexico_City}")
+    private ZoneId zona;
+
+    /**
+     * Registra un nuevo formulario a nombre del usuario indicado (sin leer la fila del usuario)
+     */
+    public Formulario registrarFormulario(Formulario formulario, Long usuarioId) {
+        formulario.setUsuario(usuarioRepository.getReferenceById(usuarioId));
+        return registrarFormulario(formulario);
+    }
+
     /**
      * Registra un nuevo formulario
      */
@@ -30,14 +86,18 @@ public class FormularioService {
         }
 
         // Validar que la fecha de inicio no sea anterior a hoy
-        if (formulario.getFechaInicio().isBefore(LocalDate.now())) {
+        if (formulario.getFechaInicio().isBefore(LocalDate.now(zona))) {
             throw new RuntimeException("La fecha de inicio no puede ser anterior a la fecha actual");
         }
 
         formulario.setFechaCreacion(LocalDateTime.now());
         formulario.setEstado(Formulario.Estado.ACTIVO);
 
-        return formularioRepository.save(formulario);
+        Formulario guardado = formularioRepository.save(formulario);
+        estadisticaService.registrarCambioFormulario(null, null, guardado.getCodigoTienda(), guardado.getEstado());
+        indiceFormularios.registrarCambio(null, EntradaIndice.de(guardado));
+        indiceAutocompletado.registrarTienda(guardado.getCodigoTienda());
+        return guardado;
     }
 
     /**
@@ -47,6 +107,7 @@ public class FormularioService {
         Optional<Formulario> formularioExistente = formularioRepository.findById(formulario.getId());
         if (formularioExistente.isPresent()) {
             Formulario formularioActual = formularioExistente.get();
+            EntradaIndice anterior = EntradaIndice.de(formularioActual);
 
             // Validar fechas
             if (formulario.getFechaFin().isBefore(formulario.getFechaInicio())) {
@@ -68,7 +129,7 @@ public class FormularioService {
             formularioActual.setEstado(formulario.getEstado());
             formularioActual.setFechaActualizacion(LocalDateTime.now());
 
-            return formularioRepository.save(formularioActual);
+            return guardarCambio(formularioActual, anterior);
         }
         throw new RuntimeException("Formulario no encontrado");
     }
@@ -80,6 +141,31 @@ public class FormularioService {
         return formularioRepository.findById(id);
     }
 
+    /**
+     * Busca un formulario por ID con su proveedor ya cargado, para mostrarlo fuera de la transacción
+     */
+    @Transactional(readOnly = true)
+    public Optional<Formulario> buscarConProveedor(Long id) {
+        return formularioRepository.findConProveedorById(id);
+    }
+
+    /**
+     * Versión del detalle de un formulario para las peticiones condicionales, sin cargar la entidad
+     */
+    @Transactional(readOnly = true)
+    public Optional<VersionFormulario> obtenerVersion(Long id) {
+        return formularioRepository.findVersionById(id);
+    }
+
+    /**
+     * Versión del listado de formularios: la modificación más reciente y el total
+     */
+    @Transactional(readOnly = true)
+    public VersionContenido obtenerVersionListado() {
+        return new VersionContenido(formularioRepository.findUltimaActualizacion(),
+                estadisticaService.contarTotalFormularios());
+    }
+
     /**
      * Obtiene todos los formularios
      */
@@ -90,8 +176,8 @@ public class FormularioService {
     /**
      * Obtiene formularios por usuario
      */
-    public List<Formulario> obtenerFormulariosPorUsuario(Usuario usuario) {
-        return formularioRepository.findByUsuario(usuario);
+    public List<Formulario> obtenerFormulariosPorUsuario(Long usuarioId) {
+        return formularioRepository.findByUsuarioId(usuarioId);
     }
 
     /**
@@ -140,35 +226,72 @@ public class FormularioService {
      * Obtiene formularios próximos a vencer
      */
     public List<Formulario> obtenerFormulariosProximosAVencer(int diasAntelacion) {
-        LocalDate hoy = LocalDate.now();
+        LocalDate hoy = LocalDate.now(zona);
         LocalDate fechaLimite = hoy.plusDays(diasAntelacion);
         return formularioRepository.findFormulariosProximosAVencer(hoy, fechaLimite);
     }
 
     /**
-     * Búsqueda avanzada con filtros
+     * Obtiene el resumen de los formularios activos de una tienda
      */
-    public List<Formulario> buscarFormulariosConFiltros(String codigoTienda, Long proveedorId, 
-                                                       Formulario.Estado estado, LocalDateTime fechaInicio, 
-                                                       LocalDateTime fechaFin) {
-        
-        // Si no hay filtros, devolver todos los formularios
-        if (codigoTienda == null && proveedorId == null && estado == null && 
-            fechaInicio == null && fechaFin == null) {
-            return formularioRepository.findAll();
+    public List<FormularioResumen> obtenerResumenesActivosPorTienda(String codigoTienda) {
+        return formularioRepository.findResumenesActivosByTienda(codigoTienda);
+    }
+
+    /**
+     * Obtiene el resumen de los formularios de una tienda próximos a vencer
+     */
+    public List<FormularioResumen> obtenerResumenesProximosAVencerPorTienda(String codigoTienda, int diasAntelacion) {
+        LocalDate hoy = LocalDate.now(zona);
+        LocalDate fechaLimite = hoy.plusDays(diasAntelacion);
+        return formularioRepository.findResumenesProximosAVencerPorTienda(codigoTienda, hoy, fechaLimite);
+    }
+
+    /**
+     * Búsqueda avanzada con filtros, paginada por llave (fecha_creacion DESC, id DESC).
+     * Los filtros, el orden y el límite se resuelven en la base de datos, y el costo
+     * de cada página es el mismo sin importar qué tan lejos se haya avanzado.
+     */
+    public PaginaKeyset<FormularioResumen> buscarFormulariosConFiltros(String codigoTienda, Long proveedorId,
+                                                               Formulario.Estado estado, LocalDateTime fechaInicio,
+                                                               LocalDateTime fechaFin, String cursorSiguiente,
+                                                               String cursorAnterior) {
+        Specification<Formulario> filtros = FormularioSpecifications.conFiltros(codigoTienda, proveedorId,
+                                                                                estado, fechaInicio, fechaFin);
+
+        CursorKeyset anterior = decodificarCursor(cursorAnterior);
+        if (anterior != null) {
+            Slice<FormularioResumen> slice = formularioRepository.buscarPaginaResumen(
+                    filtros.and(FormularioSpecifications.anterioresA(LocalDateTime.parse(anterior.clave()), anterior.id())),
+                    ORDEN_ANTIGUOS, TAMANO_PAGINA);
+            if (slice.hasContent()) {
+                return PaginaKeyset.desdeSlice(slice, true, true, FormularioService::llaveKeyset);
+            }
+        }
+
+        CursorKeyset siguiente = decodificarCursor(cursorSiguiente);
+        if (siguiente != null) {
+            filtros = filtros.and(FormularioSpecifications.posterioresA(LocalDateTime.parse(siguiente.clave()), siguiente.id()));
+        }
+        Slice<FormularioResumen> slice = formularioRepository.buscarPaginaResumen(filtros, ORDEN_RECIENTES, TAMANO_PAGINA);
+        return PaginaKeyset.desdeSlice(slice, false, siguiente != null, FormularioService::llaveKeyset);
+    }
+
+    private static CursorKeyset llaveKeyset(FormularioResumen formulario) {
+        return new CursorKeyset(formulario.fechaCreacion().toString(), formulario.id());
+    }
+
+    private static CursorKeyset decodificarCursor(String valor) {
+        CursorKeyset cursor = CursorKeyset.decodificar(valor);
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            LocalDateTime.parse(cursor.clave());
+            return cursor;
+        } catch (DateTimeParseException e) {
+            return null;
         }
-        
-        // Construir la consulta de forma programática para evitar problemas con PostgreSQL
-        List<Formulario> resultados = formularioRepository.findAll();
-        
-        return resultados.stream()
-            .filter(f -> codigoTienda == null || (f.getCodigoTienda() != null && f.getCodigoTienda().equals(codigoTienda)))
-            .filter(f -> proveedorId == null || (f.getProveedor() != null && f.getProveedor().getId().equals(proveedorId)))
-            .filter(f -> estado == null || f.getEstado().equals(estado))
-            .filter(f -> fechaInicio == null || f.getFechaCreacion().isAfter(fechaInicio.minusSeconds(1)))
-            .filter(f -> fechaFin == null || f.getFechaCreacion().isBefore(fechaFin.plusSeconds(1)))
-            .sorted((f1, f2) -> f2.getFechaCreacion().compareTo(f1.getFechaCreacion()))
-            .toList();
     }
 
     /**
@@ -178,9 +301,10 @@ public class FormularioService {
         Optional<Formulario> formulario = formularioRepository.findById(formularioId);
         if (formulario.isPresent()) {
             Formulario formularioActual = formulario.get();
+            EntradaIndice anterior = EntradaIndice.de(formularioActual);
             formularioActual.setEstado(Formulario.Estado.CANCELADO);
             formularioActual.setFechaActualizacion(LocalDateTime.now());
-            formularioRepository.save(formularioActual);
+            guardarCambio(formularioActual, anterior);
         } else {
             throw new RuntimeException("Formulario no encontrado");
         }
@@ -193,9 +317,10 @@ public class FormularioService {
         Optional<Formulario> formulario = formularioRepository.findById(formularioId);
         if (formulario.isPresent()) {
             Formulario formularioActual = formulario.get();
+            EntradaIndice anterior = EntradaIndice.de(formularioActual);
             formularioActual.setEstado(Formulario.Estado.ACTIVO);
             formularioActual.setFechaActualizacion(LocalDateTime.now());
-            formularioRepository.save(formularioActual);
+            guardarCambio(formularioActual, anterior);
         } else {
             throw new RuntimeException("Formulario no encontrado");
         }
@@ -205,41 +330,80 @@ public class FormularioService {
      * Eliminar un formulario
      */
     public void eliminarFormulario(Long formularioId) {
-        if (formularioRepository.existsById(formularioId)) {
-            formularioRepository.deleteById(formularioId);
+        Optional<Formulario> formulario = formularioRepository.findById(formularioId);
+        if (formulario.isPresent()) {
+            Formulario formularioActual = formulario.get();
+            formularioRepository.delete(formularioActual);
+            estadisticaService.registrarCambioFormulario(formularioActual.getCodigoTienda(),
+                                                         formularioActual.getEstado(), null, null);
+            indiceFormularios.registrarCambio(EntradaIndice.de(formularioActual), null);
         } else {
             throw new RuntimeException("Formulario no encontrado");
         }
     }
 
     /**
-     * Actualizar estados de formularios vencidos
+     * Guarda el cambio y ajusta las estadísticas y el índice. Se hace flush para que el
+     * estado que se cuenta sea el que quedó tras @PreUpdate (que puede marcarlo como vencido).
      */
-    public void actualizarFormulariosVencidos() {
-        LocalDate hoy = LocalDate.now();
-        List<Formulario> formulariosActivos = obtenerFormulariosPorEstado(Formulario.Estado.ACTIVO);
-        
-        for (Formulario formulario : formulariosActivos) {
-            if (formulario.getFechaFin().isBefore(hoy)) {
-                formulario.setEstado(Formulario.Estado.VENCIDO);
-                formulario.setFechaActualizacion(LocalDateTime.now());
-                formularioRepository.save(formulario);
-            }
-        }
+    private Formulario guardarCambio(Formulario formulario, EntradaIndice anterior) {
+        Formulario guardado = formularioRepository.saveAndFlush(formulario);
+        estadisticaService.registrarCambioFormulario(anterior.codigoTienda(), anterior.estado(),
+                                                     guardado.getCodigoTienda(), guardado.getEstado());
+        indiceFormularios.registrarCambio(anterior, EntradaIndice.de(guardado));
+        indiceAutocompletado.registrarTienda(guardado.getCodigoTienda());
+        return guardado;
+    }
+
+    /**
+     * Actualizar estados de formularios vencidos (UPDATE masivo por lotes)
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int actualizarFormulariosVencidos() {
+        return vencimientoFormularioService.actualizarVencidos();
     }
 
     /**
      * Obtiene estadísticas de formularios por estado
      */
     public long contarFormulariosPorEstado(Formulario.Estado estado) {
-        return formularioRepository.countByEstado(estado);
+        return estadisticaService.contarFormularios(null, estado);
     }
 
     /**
      * Obtiene estadísticas de formularios por tienda y estado
      */
     public long contarFormulariosPorTiendaYEstado(String codigoTienda, Formulario.Estado estado) {
-        return formularioRepository.countByCodigoTiendaAndEstado(codigoTienda, estado);
+        return estadisticaService.contarFormularios(codigoTienda, estado);
+    }
+
+    /**
+     * Conteo por estado de los formularios que cumplen los filtros del listado (sin contar
+     * el filtro de estado). Sin filtro de proveedor ni de fechas sale de los contadores de
+     * estadísticas, que son exactos en todas las instancias. Con esos filtros se resuelve con
+     * el índice en memoria, que puede ir atrasado hasta su siguiente reconstrucción; mientras
+     * no esté listo se usan los contadores por tienda, sin los demás filtros.
+     */
+    public Map<Formulario.Estado, Long> contarFormulariosPorEstadoConFiltros(String codigoTienda, Long proveedorId,
+                                                                         LocalDate desde, LocalDate hasta) {
+        String tienda = normalizarTienda(codigoTienda);
+        if (proveedorId == null && desde == null && hasta == null) {
+            return contarPorEstadoEnContadores(tienda);
+        }
+        return indiceFormularios.contarPorEstado(tienda, proveedorId, desde, hasta)
+                .orElseGet(() -> contarPorEstadoEnContadores(tienda));
+    }
+
+    private Map<Formulario.Estado, Long> contarPorEstadoEnContadores(String tienda) {
+        Map<Formulario.Estado, Long> conteos = new EnumMap<>(Formulario.Estado.class);
+        for (Formulario.Estado estado : Formulario.Estado.values()) {
+            conteos.put(estado, estadisticaService.contarFormularios(tienda, estado));
+        }
+        return conteos;
+    }
+
+    private static String normalizarTienda(String codigoTienda) {
+        return codigoTienda == null || codigoTienda.isBlank() ? null : codigoTienda;
     }
 
     /**
@@ -270,24 +434,24 @@ public class FormularioService {
     /**
      * Verifica si un usuario puede editar un formulario
      */
-    public boolean puedeEditarFormulario(Usuario usuario, Long formularioId) {
+    public boolean puedeEditarFormulario(UsuarioPrincipal usuario, Long formularioId) {
         Optional<Formulario> formulario = buscarPorId(formularioId);
         if (formulario.isPresent()) {
             Formulario form = formulario.get();
             
             // Los administradores pueden editar cualquier formulario
-            if (usuario.getRol() == Usuario.Rol.ADMINISTRADOR) {
+            if (usuario.rol() == Usuario.Rol.ADMINISTRADOR) {
                 return true;
             }
             
             // Los usuarios comerciales pueden editar cualquier formulario
-            if (usuario.getRol() == Usuario.Rol.COMERCIAL) {
+            if (usuario.rol() == Usuario.Rol.COMERCIAL) {
                 return true;
             }
             
             // Los usuarios de tienda solo pueden editar sus propios formularios
-            if (usuario.getRol() == Usuario.Rol.TIENDA) {
-                return form.getUsuario().getId().equals(usuario.getId());
+            if (usuario.rol() == Usuario.Rol.TIENDA) {
+                return form.getUsuario().getId().equals(usuario.id());
             }
         }
         return false;
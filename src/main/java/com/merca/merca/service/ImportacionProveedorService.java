@@ -0,0 +1,253 @@
+package com.merca.merca.service;
+
+import com.merca.merca.config.CacheConfig;
+import com.merca.merca.dto.ResultadoImportacion;
+import com.merca.merca.dto.ProveedorOpcion;
+import com.merca.merca.entity.Proveedor;
+import com.merca.merca.index.FiltrosUnicidad;
+import com.merca.merca.index.IndiceAutocompletado;
+import com.merca.merca.repository.ProveedorRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Alta masiva de proveedores desde un archivo CSV.
+ * <p>
+ * Las filas se validan en paralelo contra las restricciones de {@link Proveedor}; después,
+ * por cada lote, los RFC y emails duplicados se buscan con una sola consulta y las filas
+ * aceptadas se insertan juntas (en lotes JDBC) en una transacción. Un lote que falla al
+ * guardarse no afecta a los demás.
+ */
+@Service
+public class ImportacionProveedorService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportacionProveedorService.class);
+
+    /**
+     * Filas que se verifican contra la base de datos y se guardan juntas
+     */
+    private static final int TAMANO_LOTE = 1000;
+
+    /**
+     * Columnas que se reconocen en el encabezado (sin acentos, espacios ni guiones)
+     */
+    private static final List<String> COLUMNAS = List.of("nombre", "rfc", "razonsocial", "email", "telefono",
+                                                         "direccion", "contactoprincipal");
+
+    @Autowired
+    private ProveedorRepository proveedorRepository;
+
+    @Autowired
+    private EstadisticaService estadisticaService;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private IndiceAutocompletado indiceAutocompletado;
+
+    @Autowired
+    private FiltrosUnicidad filtrosUnicidad;
+
+    private final TransactionTemplate transaccionPorLote;
+
+    public ImportacionProveedorService(PlatformTransactionManager transactionManager) {
+        this.transaccionPorLote = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Fila del archivo convertida en proveedor, con sus errores acumulados
+     */
+    private record FilaImportada(int numero, Proveedor proveedor, List<String> errores) {
+
+        boolean valida() {
+            return errores.isEmpty();
+        }
+
+        ResultadoImportacion.Fila resultado() {
+            return new ResultadoImportacion.Fila(numero, proveedor.getRfc(), proveedor.getNombre(), valida(),
+                                                 List.copyOf(errores));
+        }
+    }
+
+    /**
+     * Importa los proveedores del archivo. El encabezado debe incluir al menos
+     * nombre, rfc, razonSocial y contactoPrincipal; email, telefono y direccion son opcionales.
+     */
+    @CacheEvict(cacheNames = CacheConfig.PROVEEDORES_ACTIVOS, allEntries = true)
+    public ResultadoImportacion importarCsv(BufferedReader reader) throws IOException {
+        long inicio = System.currentTimeMillis();
+        List<LectorCsv.Registro> registros = LectorCsv.leer(reader);
+        if (registros.isEmpty()) {
+            throw new RuntimeException("El archivo está vacío");
+        }
+        Map<String, Integer> columnas = leerEncabezado(registros.get(0).campos());
+
+        // Validación de formato en paralelo: no toca la base de datos
+        List<FilaImportada> filas = IntStream.range(1, registros.size())
+                .parallel()
+                .mapToObj(i -> convertir(registros.get(i), columnas))
+                .toList();
+
+        marcarDuplicadosEnArchivo(filas);
+        for (int desde = 0; desde < filas.size(); desde += TAMANO_LOTE) {
+            guardarLote(filas.subList(desde, Math.min(desde + TAMANO_LOTE, filas.size())));
+        }
+
+        ResultadoImportacion resultado = new ResultadoImportacion(
+                filas.stream().map(FilaImportada::resultado).toList(), System.currentTimeMillis() - inicio);
+        log.info("Importación de proveedores: {} filas, {} aceptadas, {} rechazadas en {} ms",
+                resultado.getTotal(), resultado.getAceptadas(), resultado.getRechazadas(), resultado.duracionMs());
+        return resultado;
+    }
+
+    private static Map<String, Integer> leerEncabezado(List<String> encabezado) {
+        Map<String, Integer> columnas = new HashMap<>();
+        for (int i = 0; i < encabezado.size(); i++) {
+            String nombre = normalizarEncabezado(encabezado.get(i));
+            if (COLUMNAS.contains(nombre)) {
+                columnas.put(nombre, i);
+            }
+        }
+        List<String> faltantes = List.of("nombre", "rfc", "razonsocial", "contactoprincipal").stream()
+                .filter(c -> !columnas.containsKey(c))
+                .toList();
+        if (!faltantes.isEmpty()) {
+            throw new RuntimeException("Faltan columnas en el encabezado: " + String.join(", ", faltantes));
+        }
+        return columnas;
+    }
+
+    private static String normalizarEncabezado(String texto) {
+        return Normalizer.normalize(texto, Normalizer.Form.NFD)
+                .replaceAll("[^A-Za-z]", "")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private FilaImportada convertir(LectorCsv.Registro registro, Map<String, Integer> columnas) {
+        Proveedor proveedor = new Proveedor();
+        proveedor.setNombre(valor(registro, columnas, "nombre"));
+        String rfc = valor(registro, columnas, "rfc");
+        proveedor.setRfc(rfc != null ? rfc.toUpperCase(Locale.ROOT) : null);
+        proveedor.setRazonSocial(valor(registro, columnas, "razonsocial"));
+        proveedor.setEmail(ProveedorService.normalizarEmail(valor(registro, columnas, "email")));
+        proveedor.setTelefono(valor(registro, columnas, "telefono"));
+        proveedor.setDireccion(valor(registro, columnas, "direccion"));
+        proveedor.setContactoPrincipal(valor(registro, columnas, "contactoprincipal"));
+        proveedor.setEstado(Proveedor.Estado.ACTIVO);
+
+        List<String> errores = validator.validate(proveedor).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.toCollection(ArrayList::new));
+        return new FilaImportada(registro.linea(), proveedor, errores);
+    }
+
+    private static String valor(LectorCsv.Registro registro, Map<String, Integer> columnas, String columna) {
+        Integer indice = columnas.get(columna);
+        if (indice == null || indice >= registro.campos().size()) {
+            return null;
+        }
+        String valor = registro.campos().get(indice).trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    /**
+     * Solo la primera aparición de cada RFC o email dentro del archivo se acepta. Las filas
+     * que ya traen errores no se importan, así que no reservan su RFC ni su email.
+     */
+    private static void marcarDuplicadosEnArchivo(List<FilaImportada> filas) {
+        Set<String> rfcs = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (FilaImportada fila : filas) {
+            if (!fila.valida()) {
+                continue;
+            }
+            String rfc = fila.proveedor().getRfc();
+            if (rfc != null && rfcs.contains(rfc)) {
+                fila.errores().add("El RFC está repetido en el archivo");
+            }
+            String email = fila.proveedor().getEmail();
+            if (email != null && emails.contains(email)) {
+                fila.errores().add("El email está repetido en el archivo");
+            }
+            if (fila.valida()) {
+                if (rfc != null) {
+                    rfcs.add(rfc);
+                }
+                if (email != null) {
+                    emails.add(email);
+                }
+            }
+        }
+    }
+
+    private void guardarLote(List<FilaImportada> lote) {
+        List<FilaImportada> validas = lote.stream().filter(FilaImportada::valida).toList();
+        if (validas.isEmpty()) {
+            return;
+        }
+        try {
+            transaccionPorLote.executeWithoutResult(status -> {
+                Set<String> rfcsRegistrados = new HashSet<>(proveedorRepository.findRfcsRegistrados(
+                        validas.stream().map(f -> f.proveedor().getRfc()).toList()));
+                List<String> emails = validas.stream()
+                        .map(f -> f.proveedor().getEmail())
+                        .filter(e -> e != null)
+                        .toList();
+                Set<String> emailsRegistrados = emails.isEmpty()
+                        ? Set.of() : new HashSet<>(proveedorRepository.findEmailsRegistrados(emails));
+
+                List<Proveedor> nuevos = new ArrayList<>(validas.size());
+                for (FilaImportada fila : validas) {
+                    if (rfcsRegistrados.contains(fila.proveedor().getRfc())) {
+                        fila.errores().add("El RFC ya está registrado");
+                    }
+                    if (emailsRegistrados.contains(fila.proveedor().getEmail())) {
+                        fila.errores().add("El email ya está registrado");
+                    }
+                    if (fila.valida()) {
+                        nuevos.add(fila.proveedor());
+                    }
+                }
+                proveedorRepository.saveAll(nuevos);
+                proveedorRepository.flush();
+                for (Proveedor proveedor : nuevos) {
+                    filtrosUnicidad.agregar(FiltrosUnicidad.Campo.RFC_PROVEEDOR, proveedor.getRfc());
+                    filtrosUnicidad.agregar(FiltrosUnicidad.Campo.EMAIL_PROVEEDOR, proveedor.getEmail());
+                }
+                estadisticaService.registrarAltasProveedores(Proveedor.Estado.ACTIVO, nuevos.size());
+                nuevos.forEach(p -> indiceAutocompletado.registrarProveedor(null, ProveedorOpcion.de(p)));
+            });
+        } catch (DataAccessException e) {
+            // Otro usuario registró el mismo RFC o email mientras tanto: el lote completo se rechaza
+            log.warn("No se pudo guardar un lote de la importación de proveedores: {}", e.getMessage());
+            for (FilaImportada fila : validas) {
+                if (fila.valida()) {
+                    fila.errores().add("No se pudo guardar el lote; vuelva a importar esta fila");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.merca.merca.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector mínimo de CSV (RFC 4180): campos separados por coma, entre comillas dobles
+ * cuando contienen comas, comillas o saltos de línea, y comillas escapadas duplicándolas.
+ */
+final class LectorCsv {
+
+    /**
+     * Un registro del archivo y la línea en la que empieza
+     */
+    record Registro(int linea, List<String> campos) {
+    }
+
+    private LectorCsv() {
+    }
+
+    /**
+     * Lee todos los registros del archivo. Se omiten las líneas vacías y el BOM inicial.
+     */
+    static List<Registro> leer(BufferedReader reader) throws IOException {
+        List<Registro> registros = new ArrayList<>();
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        int linea = 1;
+        int lineaInicio = 1;
+
+        reader.mark(1);
+        if (reader.read() != '\uFEFF') {
+            reader.reset();
+        }
+
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (entreComillas) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        campo.append('"');
+                    } else {
+                        entreComillas = false;
+                        reader.reset();
+                    }
+                } else {
+                    if (c == '\n') {
+                        linea++;
+                    }
+                    campo.append((char) c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                terminarRegistro(registros, lineaInicio, campos, campo);
+                campos = new ArrayList<>();
+                linea++;
+                lineaInicio = linea;
+            } else {
+                campo.append((char) c);
+            }
+        }
+        terminarRegistro(registros, lineaInicio, campos, campo);
+        return registros;
+    }
+
+    private static void terminarRegistro(List<Registro> registros, int linea, List<String> campos,
+                                         StringBuilder campo) {
+        campos.add(campo.toString());
+        campo.setLength(0);
+        if (campos.size() > 1 || !campos.get(0).isBlank()) {
+            registros.add(new Registro(linea, campos));
+        }
+    }
+}
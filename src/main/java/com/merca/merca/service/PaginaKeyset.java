@@ -0,0 +1,65 @@
+package com.merca.merca.service;
+
+import org.springframework.data.domain.Slice;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de un listado paginado por llave, con los cursores para
+ * avanzar y retroceder. Un cursor nulo indica que no hay más filas
+ * en esa dirección.
+ */
+public record PaginaKeyset<T>(List<T> contenido, String cursorAnterior, String cursorSiguiente) {
+
+    public boolean isVacia() {
+        return contenido.isEmpty();
+    }
+
+    public boolean isHayAnterior() {
+        return cursorAnterior != null;
+    }
+
+    public boolean isHaySiguiente() {
+        return cursorSiguiente != null;
+    }
+
+    /**
+     * Página sin cursores, para listados que no se paginan (p. ej. búsquedas)
+     */
+    public static <T> PaginaKeyset<T> completa(List<T> contenido) {
+        return new PaginaKeyset<>(contenido, null, null);
+    }
+
+    /**
+     * Construye la página a partir del slice leído de la base de datos.
+     *
+     * @param slice     filas leídas; si se leyó hacia atrás vienen en orden inverso
+     * @param haciaAtras true si el slice se obtuvo con el cursor "anterior"
+     * @param conCursor true si la consulta partió de un cursor (no es la primera página)
+     * @param llave     extrae la llave keyset de cada fila
+     */
+    public static <T> PaginaKeyset<T> desdeSlice(Slice<T> slice, boolean haciaAtras, boolean conCursor,
+                                                 Function<T, CursorKeyset> llave) {
+        List<T> filas = new ArrayList<>(slice.getContent());
+        boolean hayAnterior;
+        boolean haySiguiente;
+        if (haciaAtras) {
+            Collections.reverse(filas);
+            hayAnterior = slice.hasNext();
+            haySiguiente = true;
+        } else {
+            hayAnterior = conCursor;
+            haySiguiente = slice.hasNext();
+        }
+
+        if (filas.isEmpty()) {
+            return new PaginaKeyset<>(filas, null, null);
+        }
+        String anterior = hayAnterior ? llave.apply(filas.get(0)).codificar() : null;
+        String siguiente = haySiguiente ? llave.apply(filas.get(filas.size() - 1)).codificar() : null;
+        return new PaginaKeyset<>(filas, anterior, siguiente);
+    }
+}
@@ -1,59 +1,103 @@
 package com.merca.merca.service;
 
+import com.merca.merca.config.CacheConfig;
+import com.merca.merca.dto.ProveedorOpcion;
+import com.merca.merca.dto.VersionContenido;
 import com.merca.merca.entity.Proveedor;
+import com.merca.merca.index.FiltrosUnicidad;
+import com.merca.merca.index.IndiceAutocompletado;
 import com.merca.merca.repository.ProveedorRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 @Service
 @Transactional
 public class ProveedorService {
 
+    /**
+     * Filas por página en el listado de proveedores
+     */
+    private static final int TAMANO_PAGINA = 25;
+
+    /**
+     * Máximo de resultados de la búsqueda por texto
+     */
+    private static final int LIMITE_BUSQUEDA = 50;
+
     @Autowired
     private ProveedorRepository proveedorRepository;
 
+    @Autowired
+    private EstadisticaService estadisticaService;
+
+    @Autowired
+    private IndiceAutocompletado indiceAutocompletado;
+
+    @Autowired
+    private FiltrosUnicidad filtrosUnicidad;
+
     /**
      * Registra un nuevo proveedor
      */
+    @CacheEvict(cacheNames = CacheConfig.PROVEEDORES_ACTIVOS, allEntries = true)
     public Proveedor registrarProveedor(Proveedor proveedor) {
+        proveedor.setEmail(normalizarEmail(proveedor.getEmail()));
+
         // Verificar que el RFC no exista
-        if (proveedorRepository.existsByRfc(proveedor.getRfc())) {
+        if (existeRfc(proveedor.getRfc())) {
             throw new RuntimeException("El RFC ya está registrado");
         }
 
         // Verificar que el email no exista si se proporciona
         if (proveedor.getEmail() != null && !proveedor.getEmail().isEmpty() && 
-            proveedorRepository.existsByEmail(proveedor.getEmail())) {
+            existeEmail(proveedor.getEmail())) {
             throw new RuntimeException("El email ya está registrado");
         }
 
         proveedor.setFechaRegistro(LocalDateTime.now());
-        return proveedorRepository.save(proveedor);
+        Proveedor guardado = guardar(proveedor);
+        estadisticaService.registrarCambioProveedor(null, guardado.getEstado());
+        indiceAutocompletado.registrarProveedor(null, opcionActiva(guardado));
+        return guardado;
     }
 
     /**
      * Actualiza un proveedor existente
      */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PROVEEDORES_ACTIVOS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.OPCIONES_PROVEEDOR, key = "#proveedor.id")
+    })
     public Proveedor actualizarProveedor(Proveedor proveedor) {
         Optional<Proveedor> proveedorExistente = proveedorRepository.findById(proveedor.getId());
         if (proveedorExistente.isPresent()) {
             Proveedor proveedorActual = proveedorExistente.get();
+            Proveedor.Estado estadoAnterior = proveedorActual.getEstado();
+            ProveedorOpcion opcionAnterior = opcionActiva(proveedorActual);
 
             // Verificar RFC único (si ha cambiado)
             if (!proveedorActual.getRfc().equals(proveedor.getRfc()) && 
-                proveedorRepository.existsByRfc(proveedor.getRfc())) {
+                existeRfc(proveedor.getRfc())) {
                 throw new RuntimeException("El RFC ya está registrado");
             }
 
             // Verificar email único (si ha cambiado y no está vacío)
+            proveedor.setEmail(normalizarEmail(proveedor.getEmail()));
             if (proveedor.getEmail() != null && !proveedor.getEmail().isEmpty() &&
-                !proveedor.getEmail().equals(proveedorActual.getEmail()) &&
-                proveedorRepository.existsByEmail(proveedor.getEmail())) {
+                !proveedor.getEmail().equalsIgnoreCase(proveedorActual.getEmail()) &&
+                existeEmail(proveedor.getEmail())) {
                 throw new RuntimeException("El email ya está registrado");
             }
 
@@ -68,7 +112,10 @@ public class ProveedorService {
             proveedorActual.setEstado(proveedor.getEstado());
             proveedorActual.setFechaActualizacion(LocalDateTime.now());
 
-            return proveedorRepository.save(proveedorActual);
+            Proveedor guardado = guardar(proveedorActual);
+            estadisticaService.registrarCambioProveedor(estadoAnterior, guardado.getEstado());
+            indiceAutocompletado.registrarProveedor(opcionAnterior, opcionActiva(guardado));
+            return guardado;
         }
         throw new RuntimeException("Proveedor no encontrado");
     }
@@ -80,6 +127,31 @@ public class ProveedorService {
         return proveedorRepository.findById(id);
     }
 
+    /**
+     * Busca un proveedor por ID con sus formularios ya cargados, para mostrarlos fuera de la transacción
+     */
+    @Transactional(readOnly = true)
+    public Optional<Proveedor> buscarConFormularios(Long id) {
+        return proveedorRepository.findConFormulariosById(id);
+    }
+
+    /**
+     * Versión del detalle de un proveedor (incluye sus formularios), sin cargar la entidad
+     */
+    @Transactional(readOnly = true)
+    public Optional<VersionContenido> obtenerVersion(Long id) {
+        return proveedorRepository.findVersionById(id);
+    }
+
+    /**
+     * Versión del listado de proveedores: la modificación más reciente y el total
+     */
+    @Transactional(readOnly = true)
+    public VersionContenido obtenerVersionListado() {
+        return new VersionContenido(proveedorRepository.findUltimaActualizacion(),
+                estadisticaService.contarTotalProveedores());
+    }
+
     /**
      * Busca un proveedor por RFC
      */
@@ -108,6 +180,33 @@ public class ProveedorService {
         return proveedorRepository.findByEstado(estado);
     }
 
+    /**
+     * Obtiene una página de proveedores por estado, paginada por llave (nombre, id)
+     */
+    public PaginaKeyset<Proveedor> obtenerPaginaProveedoresPorEstado(Proveedor.Estado estado, String cursorSiguiente,
+                                                                     String cursorAnterior) {
+        PageRequest pagina = PageRequest.of(0, TAMANO_PAGINA);
+
+        CursorKeyset anterior = CursorKeyset.decodificar(cursorAnterior);
+        if (anterior != null) {
+            Slice<Proveedor> slice = proveedorRepository.findPaginaPorEstadoAntesDe(estado, anterior.clave(),
+                                                                                  anterior.id(), pagina);
+            if (slice.hasContent()) {
+                return PaginaKeyset.desdeSlice(slice, true, true, ProveedorService::llaveKeyset);
+            }
+        }
+
+        CursorKeyset siguiente = CursorKeyset.decodificar(cursorSiguiente);
+        Slice<Proveedor> slice = siguiente != null
+                ? proveedorRepository.findPaginaPorEstadoDespuesDe(estado, siguiente.clave(), siguiente.id(), pagina)
+                : proveedorRepository.findByEstadoOrderByNombreAscIdAsc(estado, pagina);
+        return PaginaKeyset.desdeSlice(slice, false, siguiente != null, ProveedorService::llaveKeyset);
+    }
+
+    private static CursorKeyset llaveKeyset(Proveedor proveedor) {
+        return new CursorKeyset(proveedor.getNombre(), proveedor.getId());
+    }
+
     /**
      * Obtiene proveedores activos ordenados
      */
@@ -115,6 +214,23 @@ public class ProveedorService {
         return proveedorRepository.findProveedoresActivosOrdenados();
     }
 
+    /**
+     * Obtener las opciones de proveedores activos para listas desplegables
+     */
+    @Cacheable(CacheConfig.PROVEEDORES_ACTIVOS)
+    public List<ProveedorOpcion> obtenerOpcionesProveedoresActivos() {
+        return List.copyOf(proveedorRepository.findOpcionesActivas());
+    }
+
+    /**
+     * Opción del proveedor indicado, sin importar su estado
+     */
+    @Cacheable(cacheNames = CacheConfig.OPCIONES_PROVEEDOR, key = "#proveedorId",
+               condition = "#proveedorId != null", unless = "#result == null")
+    public Optional<ProveedorOpcion> obtenerOpcion(Long proveedorId) {
+        return proveedorId != null ? proveedorRepository.findOpcionById(proveedorId) : Optional.empty();
+    }
+
     /**
      * Busca proveedores por nombre
      */
@@ -130,25 +246,33 @@ public class ProveedorService {
     }
 
     /**
-     * Búsqueda general de proveedores
+     * Búsqueda general de proveedores, de la coincidencia más a la menos parecida
      */
     public List<Proveedor> buscarProveedores(String texto, Proveedor.Estado estado) {
         if (texto == null || texto.trim().isEmpty()) {
             return obtenerProveedoresPorEstado(estado);
         }
-        return proveedorRepository.buscarProveedores(texto.trim(), estado);
+        return proveedorRepository.buscarPorTexto(texto.trim(), estado, LIMITE_BUSQUEDA);
     }
 
     /**
      * Activa un proveedor
      */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PROVEEDORES_ACTIVOS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.OPCIONES_PROVEEDOR, key = "#proveedorId")
+    })
     public void activarProveedor(Long proveedorId) {
         Optional<Proveedor> proveedor = proveedorRepository.findById(proveedorId);
         if (proveedor.isPresent()) {
             Proveedor proveedorActual = proveedor.get();
+            Proveedor.Estado estadoAnterior = proveedorActual.getEstado();
+            ProveedorOpcion opcionAnterior = opcionActiva(proveedorActual);
             proveedorActual.setEstado(Proveedor.Estado.ACTIVO);
             proveedorActual.setFechaActualizacion(LocalDateTime.now());
             proveedorRepository.save(proveedorActual);
+            estadisticaService.registrarCambioProveedor(estadoAnterior, proveedorActual.getEstado());
+            indiceAutocompletado.registrarProveedor(opcionAnterior, opcionActiva(proveedorActual));
         } else {
             throw new RuntimeException("Proveedor no encontrado");
         }
@@ -157,13 +281,21 @@ public class ProveedorService {
     /**
      * Desactiva un proveedor
      */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PROVEEDORES_ACTIVOS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.OPCIONES_PROVEEDOR, key = "#proveedorId")
+    })
     public void desactivarProveedor(Long proveedorId) {
         Optional<Proveedor> proveedor = proveedorRepository.findById(proveedorId);
         if (proveedor.isPresent()) {
             Proveedor proveedorActual = proveedor.get();
+            Proveedor.Estado estadoAnterior = proveedorActual.getEstado();
+            ProveedorOpcion opcionAnterior = opcionActiva(proveedorActual);
             proveedorActual.setEstado(Proveedor.Estado.INACTIVO);
             proveedorActual.setFechaActualizacion(LocalDateTime.now());
             proveedorRepository.save(proveedorActual);
+            estadisticaService.registrarCambioProveedor(estadoAnterior, proveedorActual.getEstado());
+            indiceAutocompletado.registrarProveedor(opcionAnterior, opcionActiva(proveedorActual));
         } else {
             throw new RuntimeException("Proveedor no encontrado");
         }
@@ -172,13 +304,21 @@ public class ProveedorService {
     /**
      * Suspende un proveedor
      */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PROVEEDORES_ACTIVOS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.OPCIONES_PROVEEDOR, key = "#proveedorId")
+    })
     public void suspenderProveedor(Long proveedorId) {
         Optional<Proveedor> proveedor = proveedorRepository.findById(proveedorId);
         if (proveedor.isPresent()) {
             Proveedor proveedorActual = proveedor.get();
+            Proveedor.Estado estadoAnterior = proveedorActual.getEstado();
+            ProveedorOpcion opcionAnterior = opcionActiva(proveedorActual);
             proveedorActual.setEstado(Proveedor.Estado.SUSPENDIDO);
             proveedorActual.setFechaActualizacion(LocalDateTime.now());
             proveedorRepository.save(proveedorActual);
+            estadisticaService.registrarCambioProveedor(estadoAnterior, proveedorActual.getEstado());
+            indiceAutocompletado.registrarProveedor(opcionAnterior, opcionActiva(proveedorActual));
         } else {
             throw new RuntimeException("Proveedor no encontrado");
         }
@@ -187,6 +327,10 @@ public class ProveedorService {
     /**
      * Elimina un proveedor (solo si no tiene formularios asociados)
      */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PROVEEDORES_ACTIVOS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.OPCIONES_PROVEEDOR, key = "#proveedorId")
+    })
     public void eliminarProveedor(Long proveedorId) {
         Optional<Proveedor> proveedor = proveedorRepository.findById(proveedorId);
         if (proveedor.isPresent()) {
@@ -194,7 +338,9 @@ public class ProveedorService {
             if (proveedorActual.getFormularios() != null && !proveedorActual.getFormularios().isEmpty()) {
                 throw new RuntimeException("No se puede eliminar el proveedor porque tiene formularios asociados");
             }
-            proveedorRepository.deleteById(proveedorId);
+            proveedorRepository.delete(proveedorActual);
+            estadisticaService.registrarCambioProveedor(proveedorActual.getEstado(), null);
+            indiceAutocompletado.registrarProveedor(opcionActiva(proveedorActual), null);
         } else {
             throw new RuntimeException("Proveedor no encontrado");
         }
@@ -204,7 +350,7 @@ public class ProveedorService {
      * Obtiene estadísticas de proveedores por estado
      */
     public long contarProveedoresPorEstado(Proveedor.Estado estado) {
-        return proveedorRepository.countByEstado(estado);
+        return estadisticaService.contarProveedores(estado);
     }
 
     /**
@@ -218,7 +364,7 @@ public class ProveedorService {
      * Verifica si un RFC está disponible
      */
     public boolean isRfcDisponible(String rfc) {
-        return !proveedorRepository.existsByRfc(rfc);
+        return !existeRfc(rfc);
     }
 
     /**
@@ -228,6 +374,59 @@ public class ProveedorService {
         if (email == null || email.trim().isEmpty()) {
             return true;
         }
-        return !proveedorRepository.existsByEmail(email);
+        return !existeEmail(email);
+    }
+
+    /**
+     * Solo consulta la base de datos si el filtro en memoria no descarta el RFC
+     */
+    private boolean existeRfc(String rfc) {
+        return filtrosUnicidad.puedeExistir(FiltrosUnicidad.Campo.RFC_PROVEEDOR, rfc)
+                && proveedorRepository.existsByRfc(rfc);
+    }
+
+    /**
+     * Solo consulta la base de datos si el filtro en memoria no descarta el email
+     */
+    private boolean existeEmail(String email) {
+        return filtrosUnicidad.puedeExistir(FiltrosUnicidad.Campo.EMAIL_PROVEEDOR, normalizarEmail(email))
+                && proveedorRepository.existsByEmail(email);
+    }
+
+    /**
+     * Guarda de inmediato para que, si el filtro dejó pasar un RFC o email ya registrado
+     * (p. ej. guardado desde otra instancia), la restricción única responda con el mismo
+     * mensaje que la verificación previa
+     */
+    private Proveedor guardar(Proveedor proveedor) {
+        Proveedor guardado;
+        try {
+            guardado = proveedorRepository.saveAndFlush(proveedor);
+        } catch (DataIntegrityViolationException e) {
+            Optional<FiltrosUnicidad.Campo> campo = FiltrosUnicidad.campoViolado(e);
+            if (campo.isEmpty()) {
+                throw e;
+            }
+            throw new RuntimeException(campo.get() == FiltrosUnicidad.Campo.RFC_PROVEEDOR
+                    ? "El RFC ya está registrado" : "El email ya está registrado");
+        }
+        filtrosUnicidad.agregar(FiltrosUnicidad.Campo.RFC_PROVEEDOR, guardado.getRfc());
+        filtrosUnicidad.agregar(FiltrosUnicidad.Campo.EMAIL_PROVEEDOR, guardado.getEmail());
+        return guardado;
+    }
+
+    /**
+     * Los emails se guardan y comparan en minúsculas, igual que en la importación masiva
+     */
+    static String normalizarEmail(String email) {
+        return email != null ? email.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
+    /**
+     * Opción de autocompletado del proveedor, o null si no está activo (solo se sugieren activos)
+     */
+
+    private static ProveedorOpcion opcionActiva(Proveedor proveedor) {
+        return proveedor.getEstado() == Proveedor.Estado.ACTIVO ? ProveedorOpcion.de(proveedor) : null;
     }
 }
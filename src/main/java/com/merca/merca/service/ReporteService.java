@@ -0,0 +1,77 @@
+package com.merca.merca.service;
+
+import com.merca.merca.dto.ConteoAgrupado;
+import com.merca.merca.dto.ConteoProveedor;
+import com.merca.merca.dto.DistribucionReporte;
+import com.merca.merca.dto.ReporteGeneral;
+import com.merca.merca.entity.Formulario;
+import com.merca.merca.entity.Proveedor;
+import com.merca.merca.repository.FormularioRepository;
+import com.merca.merca.repository.ProveedorRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Reportes del administrador. Todas las cifras salen de consultas GROUP BY,
+ * así que el costo de la página no depende del número de formularios.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ReporteService {
+
+    /**
+     * Proveedores que se muestran en el ranking por número de formularios
+     */
+    private static final int PROVEEDORES_EN_RANKING = 10;
+
+    /**
+     * Registros de cada tipo en la actividad reciente
+     */
+    private static final int ACTIVIDAD_RECIENTE = 5;
+
+    @Autowired
+    private FormularioRepository formularioRepository;
+
+    @Autowired
+    private ProveedorRepository proveedorRepository;
+
+    /**
+     * Genera el reporte general de proveedores y formularios
+     */
+    public ReporteGeneral generarReporteGeneral() {
+        List<ConteoAgrupado<Proveedor.Estado>> proveedoresPorEstado = proveedorRepository.contarAgrupadosPorEstado();
+        List<ConteoAgrupado<Formulario.Estado>> formulariosPorEstado = formularioRepository.contarAgrupadosPorEstado();
+        long totalProveedores = sumar(proveedoresPorEstado);
+        long totalFormularios = sumar(formulariosPorEstado);
+
+        PageRequest recientes = PageRequest.of(0, ACTIVIDAD_RECIENTE);
+        return new ReporteGeneral(
+                DistribucionReporte.de(proveedoresPorEstado, totalProveedores, Enum::name, Enum::name),
+                DistribucionReporte.de(formulariosPorEstado, totalFormularios, Enum::name, Enum::name),
+                DistribucionReporte.de(formularioRepository.contarAgrupadosPorTipoEspacio(), totalFormularios,
+                        Enum::name, Formulario.TipoEspacio::getDescripcion),
+                rankingProveedores(totalFormularios),
+                proveedorRepository.findResumenesRecientes(recientes),
+                formularioRepository.findResumenesRecientes(recientes));
+    }
+
+    /**
+     * Proveedores con más formularios; cada fila se identifica por el id del proveedor
+     */
+    private DistribucionReporte rankingProveedores(long totalFormularios) {
+        List<ConteoAgrupado<ConteoProveedor>> ranking = formularioRepository
+                .contarAgrupadosPorProveedor(PageRequest.of(0, PROVEEDORES_EN_RANKING)).stream()
+                .map(conteo -> new ConteoAgrupado<>(conteo, conteo.total()))
+                .toList();
+        return DistribucionReporte.de(ranking, totalFormularios,
+                conteo -> String.valueOf(conteo.proveedorId()), ConteoProveedor::nombre);
+    }
+
+    private static long sumar(List<? extends ConteoAgrupado<?>> conteos) {
+        return conteos.stream().mapToLong(ConteoAgrupado::total).sum();
+    }
+}
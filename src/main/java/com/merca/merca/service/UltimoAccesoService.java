@@ -0,0 +1,94 @@
+package com.merca.merca.service;
+
+import com.merca.merca.repository.UsuarioRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Registra la fecha de último acceso de los usuarios sin escribir durante el login.
+ * <p>
+ * Cada inicio de sesión solo deja la fecha en un mapa en memoria (la más reciente por
+ * usuario); una tarea programada la escribe cada pocos segundos con un único UPDATE en
+ * lote. Al detener la aplicación se escribe lo pendiente. Si la escritura falla, las
+ * fechas se conservan para el siguiente intento.
+ */
+@Service
+public class UltimoAccesoService {
+
+    private static final Logger log = LoggerFactory.getLogger(UltimoAccesoService.class);
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    private final TransactionTemplate transaccion;
+
+    private final Map<Long, LocalDateTime> pendientes = new ConcurrentHashMap<>();
+
+    /**
+     * Evita escrituras simultáneas (tarea programada y cierre)
+     */
+    private final ReentrantLock escritura = new ReentrantLock();
+
+    public UltimoAccesoService(PlatformTransactionManager transactionManager) {
+        this.transaccion = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Anota un acceso; no toca la base de datos
+     */
+    public void registrarAcceso(Long usuarioId, LocalDateTime fecha) {
+        pendientes.merge(usuarioId, fecha, (anterior, nueva) -> nueva.isAfter(anterior) ? nueva : anterior);
+    }
+
+    /**
+     * Escribe los accesos pendientes
+     *
+     * @return usuarios actualizados
+     */
+    @Scheduled(fixedDelayString = "${app.accesos.intervalo-ms:5000}")
+    public int escribirPendientes() {
+        escritura.lock();
+        try {
+            if (pendientes.isEmpty()) {
+                return 0;
+            }
+            Map<Long, LocalDateTime> lote = new HashMap<>(pendientes);
+            try {
+                int actualizados = transaccion.execute(status -> usuarioRepository.actualizarUltimosAccesos(lote));
+                // Solo se descartan las fechas escritas; un acceso más reciente sigue pendiente
+                lote.forEach(pendientes::remove);
+                log.debug("Últimos accesos escritos: {} de {} usuarios", actualizados, lote.size());
+                return actualizados;
+            } catch (RuntimeException e) {
+                log.warn("No se pudieron escribir {} últimos accesos; se reintentará: {}", lote.size(), e.getMessage());
+                return 0;
+            }
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void vaciarAlDetener() {
+        escribirPendientes();
+    }
+
+    /**
+     * Accesos aún no escritos
+     */
+    public int getPendientes() {
+        return pendientes.size();
+    }
+}
@@ -1,8 +1,13 @@
 package com.merca.merca.service;
 
+import com.merca.merca.dto.UsuarioPrincipal;
 import com.merca.merca.entity.Usuario;
+import com.merca.merca.index.FiltrosUnicidad;
 import com.merca.merca.repository.UsuarioRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -18,22 +23,36 @@ import java.util.Optional;
 @Transactional
 public class UsuarioService implements UserDetailsService {
 
+    /**
+     * Filas por página en el listado de usuarios
+     */
+    private static final int TAMANO_PAGINA = 25;
+
     @Autowired
     private UsuarioRepository usuarioRepository;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UltimoAccesoService ultimoAccesoService;
+
+    @Autowired
+    private FiltrosUnicidad filtrosUnicidad;
+
+    /**
+     * Solo lectura: la fecha de último acceso se escribe después, en lote.
+     * La sesión guarda un {@link UsuarioPrincipal}, no la entidad.
+     */
     @Override
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         Usuario usuario = usuarioRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + username));
 
-        // Actualizar fecha de último acceso
-        usuario.setFechaUltimoAcceso(LocalDateTime.now());
-        usuarioRepository.save(usuario);
+        ultimoAccesoService.registrarAcceso(usuario.getId(), LocalDateTime.now());
 
-        return usuario;
+        return UsuarioPrincipal.de(usuario);
     }
 
     /**
@@ -41,12 +60,12 @@ public class UsuarioService implements UserDetailsService {
      */
     public Usuario registrarUsuario(Usuario usuario) {
         // Verificar que el username no exista
-        if (usuarioRepository.existsByUsername(usuario.getUsername())) {
+        if (existeUsername(usuario.getUsername())) {
             throw new RuntimeException("El nombre de usuario ya existe");
         }
 
         // Verificar que el email no exista
-        if (usuarioRepository.existsByEmail(usuario.getEmail())) {
+        if (existeEmail(usuario.getEmail())) {
             throw new RuntimeException("El email ya está registrado");
         }
 
@@ -56,7 +75,7 @@ public class UsuarioService implements UserDetailsService {
         // Establecer fecha de creación
         usuario.setFechaCreacion(LocalDateTime.now());
 
-        return usuarioRepository.save(usuario);
+        return guardar(usuario);
     }
 
     /**
@@ -74,7 +93,7 @@ public class UsuarioService implements UserDetailsService {
             usuarioActual.setTiendaAsignada(usuario.getTiendaAsignada());
             usuarioActual.setActivo(usuario.getActivo());
 
-            return usuarioRepository.save(usuarioActual);
+            return guardar(usuarioActual);
         }
         throw new RuntimeException("Usuario no encontrado");
     }
@@ -184,17 +203,79 @@ public class UsuarioService implements UserDetailsService {
         return usuarioRepository.findAll();
     }
 
+    /**
+     * Obtiene una página de usuarios (para administradores), paginada por id
+     */
+    public PaginaKeyset<Usuario> obtenerPaginaUsuarios(String cursorSiguiente, String cursorAnterior) {
+        PageRequest pagina = PageRequest.of(0, TAMANO_PAGINA);
+
+        CursorKeyset anterior = CursorKeyset.decodificar(cursorAnterior);
+        if (anterior != null) {
+            Slice<Usuario> slice = usuarioRepository.findByIdLessThanOrderByIdDesc(anterior.id(), pagina);
+            if (slice.hasContent()) {
+                return PaginaKeyset.desdeSlice(slice, true, true, UsuarioService::llaveKeyset);
+            }
+        }
+
+        CursorKeyset siguiente = CursorKeyset.decodificar(cursorSiguiente);
+        Slice<Usuario> slice = siguiente != null
+                ? usuarioRepository.findByIdGreaterThanOrderByIdAsc(siguiente.id(), pagina)
+                : usuarioRepository.findAllByOrderByIdAsc(pagina);
+        return PaginaKeyset.desdeSlice(slice, false, siguiente != null, UsuarioService::llaveKeyset);
+    }
+
+    private static CursorKeyset llaveKeyset(Usuario usuario) {
+        return new CursorKeyset(null, usuario.getId());
+    }
+
     /**
      * Verifica si un username está disponible
      */
     public boolean isUsernameDisponible(String username) {
-        return !usuarioRepository.existsByUsername(username);
+        return !existeUsername(username);
     }
 
     /**
      * Verifica si un email está disponible
      */
     public boolean isEmailDisponible(String email) {
-        return !usuarioRepository.existsByEmail(email);
+        return !existeEmail(email);
+    }
+
+    /**
+     * Solo consulta la base de datos si el filtro en memoria no descarta el username
+     */
+    private boolean existeUsername(String username) {
+        return filtrosUnicidad.puedeExistir(FiltrosUnicidad.Campo.USERNAME_USUARIO, username)
+                && usuarioRepository.existsByUsername(username);
+    }
+
+    /**
+     * Solo consulta la base de datos si el filtro en memoria no descarta el email
+     */
+    private boolean existeEmail(String email) {
+        return filtrosUnicidad.puedeExistir(FiltrosUnicidad.Campo.EMAIL_USUARIO, email)
+                && usuarioRepository.existsByEmail(email);
+    }
+
+    /**
+     * Guarda de inmediato para que, si el filtro dejó pasar un username o email ya
+     * registrado, la restricción única responda con el mismo mensaje que la verificación previa
+     */
+    private Usuario guardar(Usuario usuario) {
+        Usuario guardado;
+        try {
+            guardado = usuarioRepository.saveAndFlush(usuario);
+        } catch (DataIntegrityViolationException e) {
+            Optional<FiltrosUnicidad.Campo> campo = FiltrosUnicidad.campoViolado(e);
+            if (campo.isEmpty()) {
+                throw e;
+            }
+            throw new RuntimeException(campo.get() == FiltrosUnicidad.Campo.USERNAME_USUARIO
+                    ? "El nombre de usuario ya existe" : "El email ya está registrado");
+        }
+        filtrosUnicidad.agregar(FiltrosUnicidad.Campo.USERNAME_USUARIO, guardado.getUsername());
+        filtrosUnicidad.agregar(FiltrosUnicidad.Campo.EMAIL_USUARIO, guardado.getEmail());
+        return guardado;
     }
 }
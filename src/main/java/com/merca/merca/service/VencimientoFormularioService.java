@@ -0,0 +1,134 @@
+package com.merca.merca.service;
+
+import com.merca.merca.dto.ConteoAgrupado;
+import com.merca.merca.repository.FormularioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Marca como VENCIDO los formularios activos cuya fecha de fin ya pasó.
+ * Se ejecuta al iniciar la aplicación (para recuperar días sin servicio) y
+ * cada medianoche (en la zona app.vencimiento.zona). El cambio se hace con UPDATE
+ * masivos por lotes, cada uno en su propia transacción, para no bloquear la tabla
+ * con backlogs grandes. Cada lote ajusta los contadores de estadísticas en su misma
+ * transacción, con lo que marcó en cada tienda; el índice de bitmaps de cada instancia
+ * recoge los cambios en su siguiente reconstrucción periódica.
+ * <p>
+ * Todas las instancias lo disparan, pero solo una lo ejecuta a la vez: la que toma
+ * el turno lo conserva en una transacción abierta mientras procesa los lotes, y las
+ * demás no hacen nada.
+ */
+@Service
+public class VencimientoFormularioService {
+
+    private static final Logger log = LoggerFactory.getLogger(VencimientoFormularioService.class);
+
+    @Autowired
+    private FormularioRepository formularioRepository;
+
+    @Autowired
+    private EstadisticaService estadisticaService;
+
+    private final TransactionTemplate transaccionPorLote;
+
+    private final TransactionTemplate transaccionTurno;
+
+    @Value("${app.vencimiento.tamano-lote:5000}")
+    private int tamanoLote;
+
+    @Value("${app.vencimiento.zona:America/Mexico_City}")
+    private ZoneId zona;
+
+    private volatile ResultadoVencimiento ultimaEjecucion;
+
+    public VencimientoFormularioService(PlatformTransactionManager transactionManager) {
+        this.transaccionPorLote = new TransactionTemplate(transactionManager);
+        this.transaccionPorLote.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transaccionTurno = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Resultado de una ejecución del proceso de vencimiento
+     */
+    public record ResultadoVencimiento(LocalDate fechaCorte, LocalDateTime inicio, Duration duracion,
+                                       int formulariosVencidos, int lotes) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void actualizarAlIniciar() {
+        actualizarVencidos();
+    }
+
+    @Scheduled(cron = "${app.vencimiento.cron:0 0 0 * * *}", zone = "${app.vencimiento.zona:America/Mexico_City}")
+    public void actualizarProgramado() {
+        actualizarVencidos();
+    }
+
+    /**
+     * Marca como vencidos todos los formularios activos con fecha de fin anterior a hoy
+     *
+     * @return número de formularios que cambiaron de estado (0 si otra instancia tenía el turno)
+     */
+    public int actualizarVencidos() {
+        LocalDate hoy = LocalDate.now(zona);
+        LocalDateTime inicio = LocalDateTime.now();
+        // Los lotes se confirman por separado; esta transacción solo sostiene el turno
+        Lotes procesados = transaccionTurno.execute(
+                status -> formularioRepository.tomarTurnoVencimiento() ? marcarPorLotes(hoy) : null);
+        if (procesados == null) {
+            log.info("Otra instancia está marcando los formularios vencidos; se omite esta ejecución");
+            return 0;
+        }
+        int total = procesados.formularios();
+        int lotes = procesados.lotes();
+
+        ResultadoVencimiento resultado = new ResultadoVencimiento(hoy, inicio,
+                Duration.between(inicio, LocalDateTime.now()), total, lotes);
+        ultimaEjecucion = resultado;
+        log.info("Vencimiento de formularios al {}: {} formularios marcados como VENCIDO en {} lote(s), {} ms",
+                hoy, total, lotes, resultado.duracion().toMillis());
+        return total;
+    }
+
+    private record Lotes(int formularios, int lotes) {
+    }
+
+    private Lotes marcarPorLotes(LocalDate hoy) {
+        int total = 0;
+        int lotes = 0;
+        int actualizados;
+        do {
+            actualizados = transaccionPorLote.execute(status -> {
+                List<ConteoAgrupado<String>> vencidos =
+                        formularioRepository.marcarVencidos(hoy, LocalDateTime.now(), tamanoLote);
+                estadisticaService.registrarVencimientos(vencidos);
+                return (int) vencidos.stream().mapToLong(ConteoAgrupado::total).sum();
+            });
+            total += actualizados;
+            lotes++;
+        } while (actualizados == tamanoLote);
+        return new Lotes(total, lotes);
+    }
+
+    /**
+     * Resultado de la última ejecución, o null si aún no se ha ejecutado
+     */
+    public ResultadoVencimiento getUltimaEjecucion() {
+        return ultimaEjecucion;
+    }
+}
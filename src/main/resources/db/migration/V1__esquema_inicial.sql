@@ -0,0 +1,67 @@
+-- =========================================
+-- ESQUEMA INICIAL DE MERCADÍA
+-- =========================================
+-- Refleja el esquema que Hibernate generaba con ddl-auto=update. Se usa
+-- IF NOT EXISTS para que la migración sea segura tanto en bases nuevas
+-- como en las que ya fueron creadas por Hibernate (baseline en versión 0).
+
+CREATE TABLE IF NOT EXISTS usuarios (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username            VARCHAR(50)  NOT NULL UNIQUE,
+    email               VARCHAR(255) NOT NULL UNIQUE,
+    password            VARCHAR(255) NOT NULL,
+    nombre_completo     VARCHAR(255) NOT NULL,
+    rol                 VARCHAR(255) NOT NULL CHECK (rol IN ('ADMINISTRADOR', 'COMERCIAL', 'TIENDA')),
+    tienda_asignada     VARCHAR(255),
+    activo              BOOLEAN      NOT NULL,
+    fecha_creacion      TIMESTAMP(6) NOT NULL,
+    fecha_ultimo_acceso TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS proveedores (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nombre              VARCHAR(100) NOT NULL,
+    rfc                 VARCHAR(13)  NOT NULL UNIQUE,
+    razon_social        VARCHAR(200) NOT NULL,
+    email               VARCHAR(255) UNIQUE,
+    telefono            VARCHAR(10),
+    direccion           VARCHAR(500),
+    contacto_principal  VARCHAR(100) NOT NULL,
+    estado              VARCHAR(255) NOT NULL CHECK (estado IN ('ACTIVO', 'INACTIVO', 'SUSPENDIDO')),
+    fecha_registro      TIMESTAMP(6) NOT NULL,
+    fecha_actualizacion TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS formularios (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nombre_tienda       VARCHAR(100)  NOT NULL,
+    codigo_tienda       VARCHAR(20)   NOT NULL,
+    proveedor_id        BIGINT        NOT NULL,
+    usuario_id          BIGINT        NOT NULL,
+    area_asignada       VARCHAR(100)  NOT NULL,
+    tipo_espacio        VARCHAR(255)  NOT NULL CHECK (tipo_espacio IN ('GONDOLA', 'EXHIBIDOR', 'ISLA', 'ENTRADA', 'CAJA',
+                                                                     'PASILLO', 'REFRIGERADOR', 'CONGELADOR', 'OTRO')),
+    metros_cuadrados    NUMERIC,
+    numero_productos    INTEGER,
+    fecha_inicio        DATE          NOT NULL,
+    fecha_fin           DATE          NOT NULL,
+    precio_acordado     NUMERIC,
+    observaciones       VARCHAR(1000),
+    estado              VARCHAR(255)  NOT NULL CHECK (estado IN ('PENDIENTE_APROBACION', 'ACTIVO', 'VENCIDO', 'CANCELADO')),
+    fecha_creacion      TIMESTAMP(6)  NOT NULL,
+    fecha_actualizacion TIMESTAMP(6)
+);
+
+-- Llaves foráneas con los mismos nombres que generaba Hibernate
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fkb7yttlcjvdo9nmjtqaux12ld5') THEN
+        ALTER TABLE formularios ADD CONSTRAINT fkb7yttlcjvdo9nmjtqaux12ld5
+            FOREIGN KEY (proveedor_id) REFERENCES proveedores (id);
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fksxr6ljaxx0j2dlwllqa6boxgm') THEN
+        ALTER TABLE formularios ADD CONSTRAINT fksxr6ljaxx0j2dlwllqa6boxgm
+            FOREIGN KEY (usuario_id) REFERENCES usuarios (id);
+    END IF;
+END
+$$;
@@ -0,0 +1,41 @@
+-- =========================================
+-- ÍNDICES PARA LAS CONSULTAS DE LOS REPOSITORIOS
+-- =========================================
+
+-- FormularioRepository.findFormulariosActivosByTienda y countByCodigoTiendaAndEstado
+CREATE INDEX IF NOT EXISTS idx_formularios_tienda_estado_creacion
+    ON formularios (codigo_tienda, estado, fecha_creacion DESC);
+
+-- FormularioRepository.reporteFormulariosPorTiendaYPeriodo y filtro por tienda del listado
+CREATE INDEX IF NOT EXISTS idx_formularios_tienda_creacion
+    ON formularios (codigo_tienda, fecha_creacion DESC);
+
+-- FormularioRepository.findFormulariosProximosAVencer y actualización de vencidos
+CREATE INDEX IF NOT EXISTS idx_formularios_activos_fecha_fin
+    ON formularios (fecha_fin)
+    WHERE estado = 'ACTIVO';
+
+-- FormularioRepository.countByEstado y filtro por estado del listado
+CREATE INDEX IF NOT EXISTS idx_formularios_estado
+    ON formularios (estado);
+
+-- Listado paginado por llave (fecha_creacion DESC, id DESC)
+CREATE INDEX IF NOT EXISTS idx_formularios_creacion_id
+    ON formularios (fecha_creacion DESC, id DESC);
+
+-- Llave foránea a proveedores: findByProveedor, reporteFormulariosPorProveedorYPeriodo
+CREATE INDEX IF NOT EXISTS idx_formularios_proveedor_creacion
+    ON formularios (proveedor_id, fecha_creacion DESC);
+
+-- Llave foránea a usuarios: findByUsuario
+CREATE INDEX IF NOT EXISTS idx_formularios_usuario
+    ON formularios (usuario_id);
+
+-- ProveedorRepository.findProveedoresActivosOrdenados y listado paginado por (nombre, id)
+CREATE INDEX IF NOT EXISTS idx_proveedores_estado_nombre_id
+    ON proveedores (estado, nombre, id);
+
+-- UsuarioRepository.findByTiendaAsignadaAndActivoTrue
+CREATE INDEX IF NOT EXISTS idx_usuarios_tienda_activos
+    ON usuarios (tienda_asignada)
+    WHERE activo;
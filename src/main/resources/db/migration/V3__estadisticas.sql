@@ -0,0 +1,11 @@
+-- =========================================
+-- CONTADORES PRECALCULADOS (EstadisticaService)
+-- =========================================
+-- Claves: FORMULARIO|<codigo_tienda>|<estado>, FORMULARIO|*|<estado> y PROVEEDOR|<estado>.
+-- Los valores se recalculan al iniciar la aplicación.
+
+CREATE TABLE IF NOT EXISTS estadisticas (
+    clave VARCHAR(150) NOT NULL,
+    total BIGINT NOT NULL,
+    CONSTRAINT estadisticas_pkey PRIMARY KEY (clave)
+);
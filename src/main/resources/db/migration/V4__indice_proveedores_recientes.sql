@@ -0,0 +1,3 @@
+-- ProveedorRepository.findResumenesActivosRecientes (dashboard del administrador)
+CREATE INDEX IF NOT EXISTS idx_proveedores_estado_registro
+    ON proveedores (estado, fecha_registro DESC, id DESC);
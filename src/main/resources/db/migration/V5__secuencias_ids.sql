@@ -0,0 +1,15 @@
+-- Los ids pasan de IDENTITY a secuencias con incremento 50 (optimizador "pooled" de Hibernate):
+-- Hibernate reserva 50 ids por cada nextval y puede agrupar los INSERT en lotes JDBC.
+-- Cada secuencia arranca después del id más alto existente.
+
+CREATE SEQUENCE IF NOT EXISTS usuarios_seq INCREMENT BY 50;
+SELECT setval('usuarios_seq', COALESCE((SELECT MAX(id) FROM usuarios), 0) + 50, false);
+ALTER TABLE usuarios ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS proveedores_seq INCREMENT BY 50;
+SELECT setval('proveedores_seq', COALESCE((SELECT MAX(id) FROM proveedores), 0) + 50, false);
+ALTER TABLE proveedores ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS formularios_seq INCREMENT BY 50;
+SELECT setval('formularios_seq', COALESCE((SELECT MAX(id) FROM formularios), 0) + 50, false);
+ALTER TABLE formularios ALTER COLUMN id DROP IDENTITY IF EXISTS;
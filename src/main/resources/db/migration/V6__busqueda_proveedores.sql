@@ -0,0 +1,35 @@
+-- Búsqueda de proveedores por similitud (ProveedorRepository.buscarPorTexto)
+-- Se indexa una columna generada con nombre, razón social, RFC y contacto en minúsculas
+-- y sin acentos; el índice GIN de trigramas atiende tanto LIKE '%texto%' como <% (similitud).
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- unaccent se crea en un esquema explícito (extensions, el que usa Supabase); si ya estaba
+-- instalada en otro esquema se usa ese. La función siempre la nombra con su esquema, porque
+-- la columna generada también se calcula con otro search_path (p. ej. al restaurar un respaldo)
+CREATE SCHEMA IF NOT EXISTS extensions;
+CREATE EXTENSION IF NOT EXISTS unaccent SCHEMA extensions;
+
+-- unaccent() no es IMMUTABLE (depende del diccionario por defecto), así que no puede usarse
+-- en una columna generada; se envuelve indicando el diccionario explícitamente
+DO $$
+DECLARE
+    esquema TEXT;
+BEGIN
+    SELECT n.nspname INTO STRICT esquema
+    FROM pg_extension e JOIN pg_namespace n ON n.oid = e.extnamespace
+    WHERE e.extname = 'unaccent';
+
+    EXECUTE format(
+        'CREATE OR REPLACE FUNCTION normalizar_busqueda(texto TEXT) RETURNS TEXT '
+        'LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT '
+        'AS $f$ SELECT lower(%I.unaccent(%L::regdictionary, texto)) $f$',
+        esquema, quote_ident(esquema) || '.unaccent');
+END
+$$;
+
+ALTER TABLE proveedores ADD COLUMN IF NOT EXISTS texto_busqueda TEXT
+    GENERATED ALWAYS AS (normalizar_busqueda(nombre || ' ' || razon_social || ' ' || rfc || ' ' || contacto_principal)) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_proveedores_texto_busqueda_trgm
+    ON proveedores USING gin (texto_busqueda gin_trgm_ops);
@@ -0,0 +1,11 @@
+-- Marcas de agua de las peticiones condicionales (ETag / Last-Modified) de los listados.
+-- Los índices son sobre la misma expresión que usan las consultas, así que el MAX se
+-- resuelve leyendo un extremo del índice en lugar de recorrer la tabla.
+
+-- FormularioRepository.findUltimaActualizacion
+CREATE INDEX IF NOT EXISTS idx_formularios_ultima_actualizacion
+    ON formularios ((COALESCE(fecha_actualizacion, fecha_creacion)));
+
+-- ProveedorRepository.findUltimaActualizacion
+CREATE INDEX IF NOT EXISTS idx_proveedores_ultima_actualizacion
+    ON proveedores ((COALESCE(fecha_actualizacion, fecha_registro)));
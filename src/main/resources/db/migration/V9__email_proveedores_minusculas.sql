@@ -0,0 +1,4 @@
+-- Los emails de proveedores se comparan sin distinguir mayúsculas (ProveedorRepository.existsByEmail
+-- y findEmailsRegistrados usan lower(email)); este índice atiende esas búsquedas.
+
+CREATE INDEX IF NOT EXISTS idx_proveedores_email_lower ON proveedores (lower(email));
@@ -0,0 +1,72 @@
+package com.merca.merca;
+
+import com.merca.merca.entity.Formulario;
+import com.merca.merca.entity.Proveedor;
+import com.merca.merca.entity.Usuario;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Datos comunes de las pruebas de repositorios y servicios: el usuario de la tienda TDA001,
+ * los proveedores A y B y formularios de góndola vigentes de 2025 a 2030. Cada prueba agrega
+ * solo las filas propias de su escenario.
+ */
+public class DatosPrueba {
+
+    private final TestEntityManager entityManager;
+
+    public DatosPrueba(TestEntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public static Usuario usuarioTienda() {
+        return new Usuario("tienda001", "tienda001@mercadia.com", "secreto", "Encargado", Usuario.Rol.TIENDA);
+    }
+
+    public static Proveedor proveedorA() {
+        return new Proveedor("Proveedor A", "AAA010101AAA", "Proveedor A S.A.", "a@proveedor.com", "Ana");
+    }
+
+    public static Proveedor proveedorB() {
+        return new Proveedor("Proveedor B", "BBB010101BBB", "Proveedor B S.A.", "b@proveedor.com", "Beto");
+    }
+
+    /**
+     * Formulario de góndola en "Pasillo 1", vigente del 1 de enero de 2025 al 1 de enero de 2030
+     */
+    public static Formulario formulario(String tienda, Proveedor proveedor, Usuario usuario,
+                                        Formulario.Estado estado, LocalDateTime fechaCreacion) {
+        Formulario formulario = new Formulario("Tienda " + tienda, tienda, proveedor, usuario, "Pasillo 1",
+                Formulario.TipoEspacio.GONDOLA, LocalDate.of(2025, 1, 1), LocalDate.of(2030, 1, 1));
+        formulario.setEstado(estado);
+        formulario.setFechaCreacion(fechaCreacion);
+        return formulario;
+    }
+
+    public Usuario persistirUsuarioTienda() {
+        return entityManager.persist(usuarioTienda());
+    }
+
+    public Proveedor persistirProveedorA() {
+        return entityManager.persist(proveedorA());
+    }
+
+    public Proveedor persistirProveedorB() {
+        return entityManager.persist(proveedorB());
+    }
+
+    public Formulario persistirFormulario(String tienda, Proveedor proveedor, Usuario usuario,
+                                          Formulario.Estado estado, LocalDateTime fechaCreacion) {
+        return entityManager.persist(formulario(tienda, proveedor, usuario, estado, fechaCreacion));
+    }
+
+    public Formulario persistirFormulario(String tienda, Proveedor proveedor, Usuario usuario,
+                                          Formulario.TipoEspacio tipoEspacio, Formulario.Estado estado,
+                                          LocalDateTime fechaCreacion) {
+        Formulario formulario = formulario(tienda, proveedor, usuario, estado, fechaCreacion);
+        formulario.setTipoEspacio(tipoEspacio);
+        return entityManager.persist(formulario);
+    }
+}
@@ -0,0 +1,103 @@
+package com.merca.merca.analytics;
+
+import com.merca.merca.entity.Formulario;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para la instantánea analítica de formularios")
+class InstantaneaFormulariosTest {
+
+    private InstantaneaFormularios instantanea;
+
+    @BeforeEach
+    void setUp() {
+        ConstructorInstantanea constructor = new ConstructorInstantanea(2);
+        constructor.agregar(fila("TDA001", 1L, "Proveedor A", Formulario.Estado.ACTIVO, Formulario.TipoEspacio.GONDOLA,
+                LocalDateTime.of(2025, 1, 15, 10, 0), 100.0, 2.0));
+        constructor.agregar(fila("TDA001", 2L, "Proveedor B", Formulario.Estado.VENCIDO, Formulario.TipoEspacio.ISLA,
+                LocalDateTime.of(2025, 3, 2, 10, 0), null, 4.0));
+        constructor.agregar(fila("TDA002", 1L, "Proveedor A", Formulario.Estado.ACTIVO, Formulario.TipoEspacio.GONDOLA,
+                LocalDateTime.of(2025, 3, 20, 10, 0), 50.0, null));
+        instantanea = constructor.construir(LocalDateTime.now());
+    }
+
+    private static FilaAnalitica fila(String tienda, Long proveedorId, String proveedorNombre, Formulario.Estado estado,
+                                      Formulario.TipoEspacio tipo, LocalDateTime creacion, Double precio, Double metros) {
+        return new FilaAnalitica(tienda, "Pasillo 1", proveedorId, proveedorNombre, estado, tipo,
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 6, 30), creacion, precio, metros);
+    }
+
+    @Test
+    @DisplayName("Agrupa por proveedor sumando importes y metros sin contar nulos")
+    void testAgruparPorProveedor() {
+        List<ResultadoAnalitico.Grupo> grupos = instantanea.consultar(
+                ConsultaAnalitica.agrupadaPor(DimensionAnalitica.PROVEEDOR)).grupos();
+
+        assertEquals(2, grupos.size());
+        assertEquals("Proveedor A", grupos.get(0).etiqueta());
+        assertEquals(2, grupos.get(0).formularios());
+        assertEquals(150.0, grupos.get(0).precioTotal());
+        assertEquals(2.0, grupos.get(0).metrosTotales());
+        assertEquals(0.0, grupos.get(1).precioTotal());
+    }
+
+    @Test
+    @DisplayName("Agrupa por mes en orden cronológico")
+    void testAgruparPorMes() {
+        List<ResultadoAnalitico.Grupo> grupos = instantanea.consultar(
+                ConsultaAnalitica.agrupadaPor(DimensionAnalitica.MES)).grupos();
+
+        assertEquals(List.of("2025-01", "2025-03"), grupos.stream().map(ResultadoAnalitico.Grupo::clave).toList());
+        assertEquals(2, grupos.get(1).formularios());
+    }
+
+    @Test
+    @DisplayName("Los filtros se combinan y un valor desconocido no devuelve grupos")
+    void testFiltros() {
+        ResultadoAnalitico resultado = instantanea.consultar(new ConsultaAnalitica(DimensionAnalitica.TIENDA,
+                null, Set.of(1L), Set.of(Formulario.Estado.ACTIVO), null, YearMonth.of(2025, 2), null, null));
+        ResultadoAnalitico desconocida = instantanea.consultar(new ConsultaAnalitica(DimensionAnalitica.TIENDA,
+                Set.of("TDA999"), null, null, null, null, null, null));
+
+        assertEquals(1, resultado.grupos().size());
+        assertEquals("TDA002", resultado.grupos().get(0).clave());
+        assertTrue(desconocida.grupos().isEmpty());
+    }
+
+    @Test
+    @DisplayName("El filtro de vigencia usa las fechas de inicio y fin")
+    void testVigenteEn() {
+        ResultadoAnalitico vigentes = instantanea.consultar(new ConsultaAnalitica(DimensionAnalitica.ESTADO,
+                null, null, null, null, null, null, LocalDate.of(2025, 7, 1)));
+
+        assertTrue(vigentes.grupos().isEmpty());
+    }
+
+    @Test
+    @DisplayName("La búsqueda en paralelo por bloques da los mismos totales")
+    void testVariosBloques() {
+        int filas = InstantaneaFormularios.TAMANO_BLOQUE * 3 + 7;
+        ConstructorInstantanea constructor = new ConstructorInstantanea(16);
+        for (int i = 0; i < filas; i++) {
+            Formulario.Estado estado = i % 2 == 0 ? Formulario.Estado.ACTIVO : Formulario.Estado.CANCELADO;
+            constructor.agregar(fila("TDA" + (i % 10), (long) (i % 5), "Proveedor " + (i % 5), estado,
+                    Formulario.TipoEspacio.GONDOLA, LocalDateTime.of(2025, 1 + i % 12, 1, 0, 0), 1.0, 1.0));
+        }
+        InstantaneaFormularios grande = constructor.construir(LocalDateTime.now());
+
+        ResultadoAnalitico resultado = grande.consultar(ConsultaAnalitica.agrupadaPor(DimensionAnalitica.ESTADO));
+
+        assertEquals(filas, resultado.grupos().stream().mapToLong(ResultadoAnalitico.Grupo::formularios).sum());
+        assertEquals((filas + 1) / 2, resultado.grupos().get(0).formularios());
+        assertEquals("ACTIVO", resultado.grupos().get(0).clave());
+    }
+}
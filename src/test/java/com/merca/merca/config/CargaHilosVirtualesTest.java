@@ -0,0 +1,188 @@
+package com.merca.merca.config;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Prueba de carga que compara el modo de hilos de plataforma con el de hilos virtuales.
+ * <p>
+ * La mitad de las peticiones toma una conexión y la retiene {@code benchmark.latencia-ms}
+ * (simula el viaje a la base de datos); la otra mitad no usa la base de datos. Con el pool de
+ * conexiones como límite, en el modo de plataforma las peticiones de base de datos ocupan los
+ * hilos de Tomcat mientras esperan conexión y las demás se encolan detrás; en el modo virtual
+ * solo esperan las que necesitan conexión. Se imprime el rendimiento y los percentiles de cada tipo.
+ * <p>
+ * Solo corre con {@code -Dbenchmark=true}; el modo virtual requiere Java 21
+ * ({@code ./mvnw -Pjava21 test -Dtest=CargaHilosVirtualesTest -Dbenchmark=true}).
+ * Parámetros: {@code benchmark.peticiones}, {@code benchmark.concurrencia}, {@code benchmark.latencia-ms}.
+ * <p>
+ * Solo la mitad de plataforma se ha medido (resultados en el README); la comparación con la
+ * mitad virtual sigue pendiente de una corrida en Java 21 (job {@code benchmark} de CI).
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("Prueba de carga: hilos de plataforma contra hilos virtuales")
+class CargaHilosVirtualesTest {
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+                    properties = {"spring.threads.virtual.enabled=false", "spring.datasource.hikari.maximum-pool-size=10",
+                                  "spring.jpa.show-sql=false", "logging.level.org.springframework.security=INFO"})
+    @ActiveProfiles("test")
+    @Import(Carga.class)
+    @DisplayName("Hilos de plataforma")
+    class HilosDePlataforma {
+
+        @LocalServerPort
+        private int puerto;
+
+        @Test
+        @DisplayName("Carga mixta con hilos de plataforma")
+        void carga() throws Exception {
+            ejecutarCarga("Hilos de plataforma", puerto);
+        }
+    }
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+                    properties = {"spring.threads.virtual.enabled=true", "spring.datasource.hikari.maximum-pool-size=10",
+                                  "spring.jpa.show-sql=false", "logging.level.org.springframework.security=INFO"})
+    @ActiveProfiles("test")
+    @Import(Carga.class)
+    @DisplayName("Hilos virtuales")
+    class HilosVirtuales {
+
+        @LocalServerPort
+        private int puerto;
+
+        @BeforeAll
+        static void requiereJava21() {
+            assumeTrue(Runtime.version().feature() >= 21, "Los hilos virtuales requieren Java 21");
+        }
+
+        @Test
+        @DisplayName("Carga mixta con hilos virtuales")
+        void carga() throws Exception {
+            ejecutarCarga("Hilos virtuales", puerto);
+        }
+    }
+
+    private static void ejecutarCarga(String modo, int puerto) throws Exception {
+        int peticiones = Integer.getInteger("benchmark.peticiones", 4_000);
+        int concurrencia = Integer.getInteger("benchmark.concurrencia", 400);
+        String base = "http://localhost:" + puerto + "/mercadia/carga/";
+
+        ExecutorService clientes = Executors.newFixedThreadPool(32);
+        HttpClient cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(clientes).build();
+        Queue<Long> tiemposBd = new ConcurrentLinkedQueue<>();
+        Queue<Long> tiemposMemoria = new ConcurrentLinkedQueue<>();
+        AtomicInteger errores = new AtomicInteger();
+        Semaphore enVuelo = new Semaphore(concurrencia);
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < peticiones; i++) {
+            boolean bd = i % 2 == 0;
+            HttpRequest peticion = HttpRequest.newBuilder(URI.create(base + (bd ? "bd" : "memoria"))).build();
+            enVuelo.acquire();
+            long enviada = System.nanoTime();
+            cliente.sendAsync(peticion, HttpResponse.BodyHandlers.discarding()).whenComplete((respuesta, error) -> {
+                long micros = (System.nanoTime() - enviada) / 1_000;
+                if (error != null || respuesta.statusCode() != 200) {
+                    errores.incrementAndGet();
+                } else {
+                    (bd ? tiemposBd : tiemposMemoria).add(micros);
+                }
+                enVuelo.release();
+            });
+        }
+        enVuelo.acquire(concurrencia);
+        long duracionMs = (System.nanoTime() - inicio) / 1_000_000;
+        clientes.shutdown();
+
+        System.out.printf("%s (Java %d): %d peticiones, concurrencia %d, en %d ms (%.0f/s); "
+                        + "con BD p50 %.1f ms p95 %.1f ms; sin BD p50 %.1f ms p95 %.1f ms; errores %d%n",
+                modo, Runtime.version().feature(), peticiones, concurrencia, duracionMs,
+                peticiones * 1000.0 / Math.max(1, duracionMs),
+                percentil(tiemposBd, 50), percentil(tiemposBd, 95),
+                percentil(tiemposMemoria, 50), percentil(tiemposMemoria, 95), errores.get());
+        assertEquals(peticiones, tiemposBd.size() + tiemposMemoria.size() + errores.get());
+    }
+
+    private static double percentil(Queue<Long> tiemposMicros, int percentil) {
+        List<Long> ordenados = new ArrayList<>(tiemposMicros);
+        if (ordenados.isEmpty()) {
+            return 0;
+        }
+        Collections.sort(ordenados);
+        int indice = (int) Math.ceil(percentil / 100.0 * ordenados.size()) - 1;
+        return ordenados.get(Math.max(0, indice)) / 1000.0;
+    }
+
+    /**
+     * Endpoints de la prueba, sin autenticación. Se registran como funciones y no como
+     * {@code @RestController} para que el escaneo de componentes de otras pruebas no los recoja.
+     */
+    @TestConfiguration
+    static class Carga {
+
+        @Bean
+        @Order(0)
+        SecurityFilterChain cargaSinAutenticacion(HttpSecurity http) throws Exception {
+            return http.securityMatcher("/carga/**")
+                    .authorizeHttpRequests(autorizacion -> autorizacion.anyRequest().permitAll())
+                    .csrf(csrf -> csrf.disable())
+                    .build();
+        }
+
+        @Bean
+        RouterFunction<ServerResponse> rutasCarga(DataSource dataSource,
+                                                  @Value("${benchmark.latencia-ms:20}") long latenciaMs) {
+            return RouterFunctions.route()
+                    .GET("/carga/bd", peticion -> {
+                        try (Connection conexion = dataSource.getConnection();
+                             Statement consulta = conexion.createStatement()) {
+                            consulta.execute("SELECT 1");
+                            Thread.sleep(latenciaMs);
+                        }
+                        return ServerResponse.ok().body("ok");
+                    })
+                    .GET("/carga/memoria", peticion -> ServerResponse.ok().body("ok"))
+                    .build();
+        }
+    }
+}
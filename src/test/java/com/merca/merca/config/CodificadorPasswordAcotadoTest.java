@@ -0,0 +1,76 @@
+package com.merca.merca.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para el cálculo de contraseñas en pool acotado")
+class CodificadorPasswordAcotadoTest {
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(1));
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Codifica y verifica con el BCrypt delegado")
+    void testCodificarYVerificar() {
+        CodificadorPasswordAcotado codificador = new CodificadorPasswordAcotado(new BCryptPasswordEncoder(4), executor);
+        String hash = codificador.encode("secreto");
+        assertTrue(hash.startsWith("$2a$04$"));
+        assertTrue(codificador.matches("secreto", hash));
+        assertFalse(codificador.matches("otro", hash));
+    }
+
+    @Test
+    @DisplayName("Rechaza al momento cuando el pool y la cola están llenos")
+    void testRechazoPorSaturacion() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch ocupado = new CountDownLatch(1);
+        PasswordEncoder lento = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                ocupado.countDown();
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+        CodificadorPasswordAcotado codificador = new CodificadorPasswordAcotado(lento, executor);
+
+        CompletableFuture<String> enCurso = CompletableFuture.supplyAsync(() -> codificador.encode("a"));
+        assertTrue(ocupado.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> enCola = CompletableFuture.supplyAsync(() -> codificador.encode("b"));
+        while (executor.getQueue().isEmpty()) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(AutenticacionSaturadaException.class, () -> codificador.encode("c"));
+        assertEquals(1, codificador.getRechazados());
+
+        liberar.countDown();
+        assertEquals("a", enCurso.get(5, TimeUnit.SECONDS));
+        assertEquals("b", enCola.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,70 @@
+package com.merca.merca.config;
+
+import com.merca.merca.dto.UsuarioPrincipal;
+import com.merca.merca.entity.Usuario;
+import com.merca.merca.service.UsuarioService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("Tests para las sesiones compartidas en base de datos")
+class SesionesJdbcTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FindByIndexNameSessionRepository<?> sessionRepository;
+
+    @Test
+    @DisplayName("El login guarda la sesión en la tabla compartida, indexada por usuario y sin el hash de la contraseña")
+    void testLoginGuardaSesion() throws Exception {
+        usuarioService.registrarUsuario(new Usuario("sesion01", "sesion01@merca.com", "secreto",
+                "Sesión Uno", Usuario.Rol.COMERCIAL));
+
+        mockMvc.perform(formLogin("/login").user("sesion01").password("secreto"))
+                .andExpect(status().is3xxRedirection());
+
+        Integer sesiones = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM SPRING_SESSION WHERE PRINCIPAL_NAME = ?", Integer.class, "sesion01");
+        assertEquals(1, sesiones);
+        Session sesion = sessionRepository.findByPrincipalName("sesion01").values().iterator().next();
+        SecurityContext contexto = sesion.getAttribute("SPRING_SECURITY_CONTEXT");
+        UsuarioPrincipal principal = assertInstanceOf(UsuarioPrincipal.class, contexto.getAuthentication().getPrincipal());
+        assertEquals(Usuario.Rol.COMERCIAL, principal.rol());
+        assertNull(principal.password());
+        assertNull(principal.getPassword());
+    }
+
+    @Test
+    @DisplayName("Las páginas reciben el principal compacto del usuario de tienda")
+    void testPrincipalEnControladores() throws Exception {
+        UsuarioPrincipal tienda = new UsuarioPrincipal(999L, "tienda999", Usuario.Rol.TIENDA, "T999", true, "x");
+
+        mockMvc.perform(get("/tienda/dashboard").with(user(tienda)))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,101 @@
+package com.merca.merca.controller;
+
+import com.merca.merca.dto.UsuarioPrincipal;
+import com.merca.merca.entity.Proveedor;
+import com.merca.merca.entity.Usuario;
+import com.merca.merca.service.ProveedorService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.condicional.margen-ms=0")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@DisplayName("Tests para las peticiones GET condicionales")
+class RespuestaCondicionalTest {
+
+    /**
+     * Las sesiones las resuelve Spring Session por cookie, no por la sesión del contenedor
+     */
+    private static final String COOKIE_SESION = "MERCADIA_SESSION";
+
+    private final UsuarioPrincipal comercial =
+            new UsuarioPrincipal(900L, "comercial900", Usuario.Rol.COMERCIAL, null, true, "x");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProveedorService proveedorService;
+
+    @Test
+    @DisplayName("El detalle de un proveedor responde 304 mientras no cambie")
+    void testDetalleProveedor() throws Exception {
+        Proveedor proveedor = proveedorService.registrarProveedor(
+                new Proveedor("Condicional", "CON010101AAA", "Condicional S.A.", "cond@proveedor.com", "Carmen"));
+        String url = "/proveedores/" + proveedor.getId();
+
+        MockHttpServletResponse primera = mockMvc.perform(get(url).with(user(comercial)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse();
+        String etag = primera.getHeader(HttpHeaders.ETAG);
+        Cookie sesion = primera.getCookie(COOKIE_SESION);
+        assertNotNull(etag);
+        assertNotNull(sesion);
+
+        mockMvc.perform(get(url).cookie(sesion).with(user(comercial)).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // Un cambio en el proveedor invalida la versión guardada
+        proveedorService.suspenderProveedor(proveedor.getId());
+        String etagSuspendido = mockMvc.perform(get(url).cookie(sesion).with(user(comercial))
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, etagSuspendido);
+
+        // Otra sesión lleva otro token CSRF: no puede reutilizar la página
+        mockMvc.perform(get(url).with(user(comercial)).header(HttpHeaders.IF_NONE_MATCH, etagSuspendido))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("El listado de proveedores se valida con la última modificación y el total")
+    void testListadoProveedores() throws Exception {
+        proveedorService.registrarProveedor(
+                new Proveedor("Listado", "LIS010101AAA", "Listado S.A.", "lista@proveedor.com", "Luis"));
+        MockHttpServletResponse primera = mockMvc.perform(get("/proveedores").with(user(comercial)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        String etag = primera.getHeader(HttpHeaders.ETAG);
+        Cookie sesion = primera.getCookie(COOKIE_SESION);
+        assertNotNull(etag);
+
+        mockMvc.perform(get("/proveedores").cookie(sesion).with(user(comercial))
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        proveedorService.registrarProveedor(
+                new Proveedor("Listado Dos", "LIS020202BBB", "Listado Dos S.A.", "lista2@proveedor.com", "Lucía"));
+        mockMvc.perform(get("/proveedores").cookie(sesion).with(user(comercial))
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,47 @@
+package com.merca.merca.index;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para el filtro de Bloom de unicidad")
+class FiltroBloomTest {
+
+    @Test
+    @DisplayName("Nunca descarta un valor agregado")
+    void testSinFalsosNegativos() {
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.agregar("proveedor" + i + "@correo.com");
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filtro.puedeContener("proveedor" + i + "@correo.com"));
+        }
+    }
+
+    @Test
+    @DisplayName("Mantiene los falsos positivos cerca de la tasa configurada")
+    void testTasaFalsosPositivos() {
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.agregar(String.format("RFC%09d", i));
+        }
+        int falsos = 0;
+        for (int i = 10_000; i < 110_000; i++) {
+            if (filtro.puedeContener(String.format("RFC%09d", i))) {
+                falsos++;
+            }
+        }
+        assertTrue(falsos < 2_000, "Falsos positivos: " + falsos);
+    }
+
+    @Test
+    @DisplayName("Un filtro vacío descarta cualquier valor")
+    void testFiltroVacio() {
+        FiltroBloom filtro = new FiltroBloom(1000, 0.01);
+        assertFalse(filtro.puedeContener("admin"));
+        filtro.agregar("admin");
+        assertTrue(filtro.puedeContener("admin"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.merca.merca.index;
+
+import com.merca.merca.entity.Proveedor;
+import com.merca.merca.service.EstadisticaService;
+import com.merca.merca.service.ProveedorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({FiltrosUnicidad.class, ProveedorService.class, EstadisticaService.class, IndiceAutocompletado.class})
+@DisplayName("Tests para los filtros de unicidad")
+class FiltrosUnicidadTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private FiltrosUnicidad filtrosUnicidad;
+
+    @Autowired
+    private ProveedorService proveedorService;
+
+    @BeforeEach
+    void setUp() {
+        entityManager.persist(new Proveedor("Existente", "EXI010101AAA", "Existente S.A.", "Existe@Proveedor.com", "Eva"));
+        entityManager.flush();
+        filtrosUnicidad.reconstruir();
+    }
+
+    @Test
+    @DisplayName("Descarta los valores no registrados y guarda emails en minúsculas")
+    void testDescartaNoRegistrados() {
+        assertTrue(filtrosUnicidad.puedeExistir(FiltrosUnicidad.Campo.RFC_PROVEEDOR, "EXI010101AAA"));
+        assertTrue(filtrosUnicidad.puedeExistir(FiltrosUnicidad.Campo.EMAIL_PROVEEDOR, "existe@proveedor.com"));
+        assertFalse(filtrosUnicidad.puedeExistir(FiltrosUnicidad.Campo.RFC_PROVEEDOR, "NUE010101AAA"));
+        assertFalse(proveedorService.isEmailDisponible("EXISTE@proveedor.com"));
+        assertTrue(proveedorService.isRfcDisponible("NUE010101AAA"));
+
+        proveedorService.registrarProveedor(
+                new Proveedor("Nuevo", "NUE010101AAA", "Nuevo S.A.", "nuevo@proveedor.com", "Nora"));
+        assertTrue(filtrosUnicidad.puedeExistir(FiltrosUnicidad.Campo.RFC_PROVEEDOR, "NUE010101AAA"));
+        assertFalse(proveedorService.isRfcDisponible("NUE010101AAA"));
+    }
+
+    @Test
+    @DisplayName("Si el filtro está desactualizado, la restricción única responde con el mismo mensaje")
+    void testFiltroDesactualizado() {
+        // Guardado sin pasar por el servicio, como desde otra instancia
+        entityManager.persist(new Proveedor("Otro", "OTR010101AAA", "Otro S.A.", "otro@proveedor.com", "Omar"));
+        entityManager.flush();
+        assertFalse(filtrosUnicidad.puedeExistir(FiltrosUnicidad.Campo.RFC_PROVEEDOR, "OTR010101AAA"));
+
+        RuntimeException rfc = assertThrows(RuntimeException.class, () -> proveedorService.registrarProveedor(
+                new Proveedor("Copia", "OTR010101AAA", "Copia S.A.", "copia@proveedor.com", "Carla")));
+        assertEquals("El RFC ya está registrado", rfc.getMessage());
+    }
+
+    @Test
+    @DisplayName("Traduce el choque de email con la restricción única")
+    void testEmailDesactualizado() {
+        entityManager.persist(new Proveedor("Otro", "OTR010101AAA", "Otro S.A.", "otro@proveedor.com", "Omar"));
+        entityManager.flush();
+
+        RuntimeException email = assertThrows(RuntimeException.class, () -> proveedorService.registrarProveedor(
+                new Proveedor("Copia", "COP010101AAA", "Copia S.A.", "Otro@Proveedor.com", "Carla")));
+        assertEquals("El email ya está registrado", email.getMessage());
+    }
+}
@@ -0,0 +1,132 @@
+package com.merca.merca.index;
+
+import com.merca.merca.DatosPrueba;
+import com.merca.merca.entity.Formulario;
+import com.merca.merca.entity.Proveedor;
+import com.merca.merca.entity.Usuario;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(IndiceBitmapFormularios.class)
+@DisplayName("Tests para el índice de bitmaps de formularios")
+class IndiceBitmapFormulariosTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private IndiceBitmapFormularios indice;
+
+    private Proveedor proveedorA;
+    private Proveedor proveedorB;
+    private Formulario activoEnero;
+
+    @BeforeEach
+    void setUp() {
+        DatosPrueba datos = new DatosPrueba(entityManager);
+        Usuario usuario = datos.persistirUsuarioTienda();
+        proveedorA = datos.persistirProveedorA();
+        proveedorB = datos.persistirProveedorB();
+
+        activoEnero = datos.persistirFormulario("TDA001", proveedorA, usuario, Formulario.Estado.ACTIVO,
+                LocalDateTime.of(2025, 1, 10, 12, 0));
+        datos.persistirFormulario("TDA001", proveedorB, usuario, Formulario.Estado.CANCELADO,
+                LocalDateTime.of(2025, 1, 31, 12, 0));
+        datos.persistirFormulario("TDA002", proveedorA, usuario, Formulario.Estado.ACTIVO,
+                LocalDateTime.of(2025, 2, 1, 12, 0));
+        datos.persistirFormulario("TDA002", proveedorA, usuario, Formulario.Estado.VENCIDO,
+                LocalDateTime.of(2025, 3, 15, 12, 0));
+        entityManager.flush();
+
+        indice.reconstruir();
+    }
+
+    private long contar(String tienda, Long proveedorId, Formulario.Estado estado, LocalDate desde, LocalDate hasta) {
+        Map<Formulario.Estado, Long> conteos = indice.contarPorEstado(tienda, proveedorId, desde, hasta).orElseThrow();
+        return estado != null ? conteos.get(estado) : conteos.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Test
+    @DisplayName("Combina tienda, proveedor, estado y rango de fechas")
+    void testFiltros() {
+        assertEquals(4, contar(null, null, null, null, null));
+        assertEquals(2, contar("TDA001", null, null, null, null));
+        assertEquals(3, contar(null, proveedorA.getId(), null, null, null));
+        assertEquals(1, contar("TDA002", proveedorA.getId(), Formulario.Estado.ACTIVO, null, null));
+        assertEquals(2, contar(null, null, null, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31)));
+        assertEquals(2, contar(null, proveedorA.getId(), null, LocalDate.of(2025, 1, 31), null));
+        assertEquals(0, contar("TDA999", null, null, null, null));
+        assertEquals(1, contar("TDA001", proveedorA.getId(), Formulario.Estado.ACTIVO, null, null));
+    }
+
+    @Test
+    @DisplayName("Cuenta por estado los formularios que cumplen los filtros")
+    void testContarPorEstado() {
+        Map<Formulario.Estado, Long> conteos = indice.contarPorEstado(null, proveedorA.getId(), null, null).orElseThrow();
+
+        assertEquals(2, conteos.get(Formulario.Estado.ACTIVO));
+        assertEquals(1, conteos.get(Formulario.Estado.VENCIDO));
+        assertEquals(0, conteos.get(Formulario.Estado.CANCELADO));
+    }
+
+    @Test
+    @DisplayName("Un cambio se aplica al confirmarse la transacción")
+    void testCambioConfirmado() {
+        EntradaIndice anterior = EntradaIndice.de(activoEnero);
+        activoEnero.setEstado(Formulario.Estado.CANCELADO);
+        indice.registrarCambio(anterior, EntradaIndice.de(activoEnero));
+
+        assertEquals(2, contar(null, null, Formulario.Estado.ACTIVO, null, null));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(1, contar(null, null, Formulario.Estado.ACTIVO, null, null));
+        assertEquals(2, contar(null, null, Formulario.Estado.CANCELADO, null, null));
+    }
+
+    @Test
+    @DisplayName("Admite ids mayores que un int y fuera de orden")
+    void testIdsGrandes() {
+        long idGrande = 5_000_000_000L;
+        indice.registrarCambio(null, new EntradaIndice(idGrande, "TDA003", proveedorB.getId(),
+                Formulario.Estado.ACTIVO, LocalDate.of(2025, 4, 1)));
+        indice.registrarCambio(null, new EntradaIndice(idGrande - 10, "TDA003", proveedorB.getId(),
+                Formulario.Estado.ACTIVO, LocalDate.of(2025, 4, 1)));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(2, contar("TDA003", null, Formulario.Estado.ACTIVO, null, null));
+
+        indice.registrarCambio(new EntradaIndice(idGrande - 10, "TDA003", proveedorB.getId(),
+                Formulario.Estado.ACTIVO, LocalDate.of(2025, 4, 1)), null);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(1, contar("TDA003", proveedorB.getId(), null, null, null));
+        assertEquals(5, contar(null, null, null, null, null));
+    }
+
+    @Test
+    @DisplayName("Un cambio revertido no altera el índice")
+    void testCambioRevertido() {
+        indice.registrarCambio(EntradaIndice.de(activoEnero), null);
+        TestTransaction.end();
+
+        assertEquals(4, contar(null, null, null, null, null));
+    }
+}
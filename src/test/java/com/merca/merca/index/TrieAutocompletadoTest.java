@@ -0,0 +1,55 @@
+package com.merca.merca.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para el árbol de prefijos del autocompletado")
+class TrieAutocompletadoTest {
+
+    private TrieAutocompletado<String> trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = new TrieAutocompletado<>();
+        trie.agregar("Abarrotes Peña", "ABA");
+        trie.agregar("Peña", "ABA");
+        trie.agregar("Panadería Ñandú", "PAN");
+        trie.agregar("Papelería Central", "PAP");
+        trie.agregar("PAP010101AAA", "PAP");
+    }
+
+    @Test
+    @DisplayName("Ignora mayúsculas y acentos, y devuelve cada valor una sola vez")
+    void testBuscar() {
+        assertEquals(List.of("ABA"), trie.buscar("pena", 10));
+        assertEquals(List.of("PAN", "PAP"), trie.buscar("PA", 10));
+        assertEquals(List.of("PAN"), trie.buscar("panaderia n", 10));
+        assertEquals(List.of("PAP"), trie.buscar("pap0", 10));
+        assertTrue(trie.buscar("xyz", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Respeta el límite de resultados")
+    void testLimite() {
+        assertEquals(List.of("PAN"), trie.buscar("pa", 1));
+        assertEquals(3, trie.buscar("", 10).size());
+    }
+
+    @Test
+    @DisplayName("Quitar una clave poda el árbol sin afectar las demás")
+    void testQuitar() {
+        trie.quitar("Peña", "ABA");
+        assertEquals(List.of("ABA"), trie.buscar("abarr", 10));
+        assertTrue(trie.buscar("pen", 10).isEmpty());
+
+        trie.quitar("Papelería Central", "PAP");
+        assertTrue(trie.buscar("papel", 10).isEmpty());
+        assertEquals(List.of("PAP"), trie.buscar("PAP01", 10));
+        assertEquals(3, trie.getClaves());
+    }
+}
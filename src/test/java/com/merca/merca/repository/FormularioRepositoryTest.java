@@ -0,0 +1,153 @@
+package com.merca.merca.repository;
+
+import com.merca.merca.DatosPrueba;
+import com.merca.merca.analytics.FilaAnalitica;
+import com.merca.merca.dto.ConteoAgrupado;
+import com.merca.merca.dto.FormularioResumen;
+import com.merca.merca.entity.Formulario;
+import com.merca.merca.entity.Proveedor;
+import com.merca.merca.entity.Usuario;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@DisplayName("Tests para las consultas del repositorio de formularios")
+class FormularioRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private FormularioRepository formularioRepository;
+
+    private DatosPrueba datos;
+
+    private Usuario usuario;
+
+    private Proveedor proveedorA;
+    private Proveedor proveedorB;
+
+    @BeforeEach
+    void setUp() {
+        datos = new DatosPrueba(entityManager);
+        usuario = datos.persistirUsuarioTienda();
+
+        proveedorA = datos.persistirProveedorA();
+        proveedorB = datos.persistirProveedorB();
+
+        datos.persistirFormulario("TDA001", proveedorA, usuario, Formulario.Estado.ACTIVO, LocalDateTime.of(2025, 1, 10, 9, 0));
+        datos.persistirFormulario("TDA001", proveedorB, usuario, Formulario.Estado.CANCELADO, LocalDateTime.of(2025, 2, 10, 9, 0));
+        datos.persistirFormulario("TDA002", proveedorA, usuario, Formulario.Estado.ACTIVO, LocalDateTime.of(2025, 3, 10, 9, 0));
+        entityManager.flush();
+    }
+
+    @Test
+    @DisplayName("Los formularios activos con fecha de fin pasada se marcan como vencidos por lotes")
+    void testMarcarVencidosPorLotes() {
+        LocalDate hoy = LocalDate.of(2030, 6, 1);
+        Formulario cancelado = formularioRepository.findAll(FormularioSpecifications.conEstado(Formulario.Estado.CANCELADO)).get(0);
+
+        List<ConteoAgrupado<String>> primerLote = formularioRepository.marcarVencidos(hoy, LocalDateTime.now(), 1);
+        List<ConteoAgrupado<String>> segundoLote = formularioRepository.marcarVencidos(hoy, LocalDateTime.now(), 1);
+        List<ConteoAgrupado<String>> tercerLote = formularioRepository.marcarVencidos(hoy, LocalDateTime.now(), 1);
+        entityManager.clear();
+
+        assertEquals(List.of(new ConteoAgrupado<>("TDA001", 1)), primerLote);
+        assertEquals(List.of(new ConteoAgrupado<>("TDA002", 1)), segundoLote);
+        assertTrue(tercerLote.isEmpty());
+        assertEquals(2, formularioRepository.countByEstado(Formulario.Estado.VENCIDO));
+        assertEquals(Formulario.Estado.CANCELADO, formularioRepository.findById(cancelado.getId()).orElseThrow().getEstado());
+    }
+
+    @Test
+    @DisplayName("Los formularios vigentes no se marcan como vencidos")
+    void testNoVenceFormulariosVigentes() {
+        assertTrue(formularioRepository.marcarVencidos(LocalDate.of(2029, 12, 31), LocalDateTime.now(), 100).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Al editar un formulario con fecha de fin pasada se marca como vencido")
+    void testVenceAlActualizar() {
+        Formulario formulario = datos.persistirFormulario("TDA003", proveedorA, usuario, Formulario.Estado.ACTIVO,
+                LocalDateTime.of(2025, 1, 10, 9, 0));
+        entityManager.flush();
+
+        formulario.setFechaFin(LocalDate.now(ZoneId.of("America/Mexico_City")).minusDays(1));
+        entityManager.flush();
+
+        assertEquals(Formulario.Estado.VENCIDO, formulario.getEstado());
+    }
+
+    @Test
+    @DisplayName("Los listados traen el proveedor en la misma consulta")
+    void testListadosCarganProveedor() {
+        entityManager.clear();
+
+        List<Formulario> activos = formularioRepository.findFormulariosActivosByTienda("TDA001");
+
+        assertFalse(activos.isEmpty());
+        assertTrue(activos.stream().allMatch(f -> Hibernate.isInitialized(f.getProveedor())));
+    }
+
+    @Test
+    @DisplayName("El resumen de formularios incluye el nombre del proveedor")
+    void testResumenConNombreDeProveedor() {
+        List<FormularioResumen> resumenes = formularioRepository.findResumenesActivosByTienda("TDA001");
+
+        assertEquals(1, resumenes.size());
+        assertEquals(proveedorA.getNombre(), resumenes.get(0).proveedorNombre());
+        assertEquals(Formulario.Estado.ACTIVO, resumenes.get(0).estado());
+    }
+
+    @Test
+    @DisplayName("Los formularios recientes se limitan y ordenan por fecha de creación")
+    void testResumenesRecientes() {
+        List<FormularioResumen> recientes = formularioRepository.findResumenesRecientes(PageRequest.of(0, 2));
+
+        assertEquals(2, recientes.size());
+        assertEquals("TDA002", recientes.get(0).codigoTienda());
+        assertEquals(LocalDateTime.of(2025, 2, 10, 9, 0), recientes.get(1).fechaCreacion());
+    }
+
+    @Test
+    @DisplayName("El flujo analítico trae una fila por formulario con su proveedor")
+    void testStreamFilasAnaliticas() {
+        try (Stream<FilaAnalitica> filas = formularioRepository.streamFilasAnaliticas()) {
+            List<FilaAnalitica> lista = filas.toList();
+
+            assertEquals(3, lista.size());
+            assertTrue(lista.stream().allMatch(f -> f.proveedorNombre() != null));
+        }
+    }
+
+    @Test
+    @DisplayName("El flujo de resúmenes respeta filtros y orden")
+    void testStreamResumenes() {
+        try (Stream<FormularioResumen> filas = formularioRepository.streamResumenes(
+                FormularioSpecifications.conFiltros(null, proveedorA.getId(), null, null, null),
+                Sort.by(Sort.Order.desc("fechaCreacion"), Sort.Order.desc("id")))) {
+            List<FormularioResumen> lista = filas.toList();
+
+            assertEquals(2, lista.size());
+            assertEquals("TDA002", lista.get(0).codigoTienda());
+            assertEquals("Proveedor A", lista.get(1).proveedorNombre());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.merca.merca.repository;
+
+import com.merca.merca.DatosPrueba;
+import com.merca.merca.dto.FormularioResumen;
+import com.merca.merca.entity.Formulario;
+import com.merca.merca.entity.Proveedor;
+import com.merca.merca.entity.Usuario;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@DisplayName("Tests para los filtros de búsqueda de formularios")
+class FormularioSpecificationsTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private FormularioRepository formularioRepository;
+
+    private Proveedor proveedorA;
+    private Proveedor proveedorB;
+
+    @BeforeEach
+    void setUp() {
+        DatosPrueba datos = new DatosPrueba(entityManager);
+        Usuario usuario = datos.persistirUsuarioTienda();
+
+        proveedorA = datos.persistirProveedorA();
+        proveedorB = datos.persistirProveedorB();
+
+        datos.persistirFormulario("TDA001", proveedorA, usuario, Formulario.Estado.ACTIVO, LocalDateTime.of(2025, 1, 10, 9, 0));
+        datos.persistirFormulario("TDA001", proveedorB, usuario, Formulario.Estado.CANCELADO, LocalDateTime.of(2025, 2, 10, 9, 0));
+        datos.persistirFormulario("TDA002", proveedorA, usuario, Formulario.Estado.ACTIVO, LocalDateTime.of(2025, 3, 10, 9, 0));
+        entityManager.flush();
+    }
+
+    @Test
+    @DisplayName("Sin filtros devuelve todo ordenado por fecha de creación descendente")
+    void testSinFiltros() {
+        List<Formulario> resultado = formularioRepository.findAll(
+                FormularioSpecifications.conFiltros(null, null, null, null, null),
+                Sort.by(Sort.Direction.DESC, "fechaCreacion"));
+
+        assertEquals(3, resultado.size());
+        assertEquals("TDA002", resultado.get(0).getCodigoTienda());
+    }
+
+    @Test
+    @DisplayName("Los filtros se combinan con AND")
+    void testFiltrosCombinados() {
+        List<Formulario> resultado = formularioRepository.findAll(
+                FormularioSpecifications.conFiltros("TDA001", proveedorA.getId(), Formulario.Estado.ACTIVO, null, null));
+
+        assertEquals(1, resultado.size());
+        assertEquals(proveedorA.getId(), resultado.get(0).getProveedor().getId());
+    }
+
+    @Test
+    @DisplayName("El rango de fechas es inclusivo")
+    void testRangoDeFechas() {
+        List<Formulario> resultado = formularioRepository.findAll(
+                FormularioSpecifications.conFiltros(null, null, null,
+                        LocalDateTime.of(2025, 2, 10, 9, 0), LocalDateTime.of(2025, 3, 10, 9, 0)));
+
+        assertEquals(2, resultado.size());
+    }
+
+    @Test
+    @DisplayName("El cursor keyset devuelve solo las filas posteriores")
+    void testCursorKeyset() {
+        List<FormularioResumen> primeraPagina = formularioRepository.buscarPaginaResumen(
+                FormularioSpecifications.conFiltros(null, null, null, null, null),
+                Sort.by(Sort.Order.desc("fechaCreacion"), Sort.Order.desc("id")), 2).getContent();
+        FormularioResumen ultimo = primeraPagina.get(1);
+
+        Slice<FormularioResumen> segundaPagina = formularioRepository.buscarPaginaResumen(
+                FormularioSpecifications.posterioresA(ultimo.fechaCreacion(), ultimo.id()),
+                Sort.by(Sort.Order.desc("fechaCreacion"), Sort.Order.desc("id")), 2);
+
+        assertEquals(1, segundaPagina.getNumberOfElements());
+        assertFalse(segundaPagina.hasNext());
+        assertEquals(LocalDateTime.of(2025, 1, 10, 9, 0), segundaPagina.getContent().get(0).fechaCreacion());
+    }
+}
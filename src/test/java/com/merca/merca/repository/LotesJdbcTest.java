@@ -0,0 +1,116 @@
+package com.merca.merca.repository;
+
+import com.merca.merca.DatosPrueba;
+import com.merca.merca.entity.Formulario;
+import com.merca.merca.entity.Proveedor;
+import com.merca.merca.entity.Usuario;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica que los INSERT y UPDATE de formularios se envían en lotes JDBC.
+ * <p>
+ * El benchmark solo corre con {@code -Dbenchmark=true}. Por defecto usa H2 en memoria,
+ * donde no hay viajes de red; para medir contra PostgreSQL se pasan también
+ * {@code -Dspring.datasource.url=... -Dspring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect}
+ * y las credenciales.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@DisplayName("Tests para los INSERT y UPDATE en lotes")
+class LotesJdbcTest {
+
+    private static final int FORMULARIOS = 120;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private FormularioRepository formularioRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Usuario usuario;
+    private Proveedor proveedor;
+    private Statistics estadisticas;
+
+    @BeforeEach
+    void setUp() {
+        DatosPrueba datos = new DatosPrueba(entityManager);
+        usuario = datos.persistirUsuarioTienda();
+        proveedor = datos.persistirProveedorA();
+        entityManager.flush();
+
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+    }
+
+    private List<Formulario> nuevos(int cantidad) {
+        List<Formulario> formularios = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            formularios.add(DatosPrueba.formulario("TDA001", proveedor, usuario, Formulario.Estado.ACTIVO,
+                    LocalDateTime.now()));
+        }
+        return formularios;
+    }
+
+    @Test
+    @DisplayName("Los INSERT y UPDATE se agrupan en lotes")
+    void testInsertYUpdateEnLotes() {
+        List<Formulario> guardados = formularioRepository.saveAll(nuevos(FORMULARIOS));
+        formularioRepository.flush();
+
+        assertEquals(FORMULARIOS, estadisticas.getEntityInsertCount());
+        // Con ids por secuencia (50 por nextval) y lotes de 50 bastan unas pocas sentencias
+        assertTrue(estadisticas.getPrepareStatementCount() < 10,
+                "Sentencias preparadas: " + estadisticas.getPrepareStatementCount());
+
+        estadisticas.clear();
+        guardados.forEach(f -> f.setEstado(Formulario.Estado.CANCELADO));
+        formularioRepository.flush();
+
+        assertEquals(FORMULARIOS, estadisticas.getEntityUpdateCount());
+        assertTrue(estadisticas.getPrepareStatementCount() < 10,
+                "Sentencias preparadas: " + estadisticas.getPrepareStatementCount());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Benchmark de alta y cambio de estado masivos")
+    void benchmarkAltaYCambioDeEstado() {
+        int cantidad = Integer.getInteger("benchmark.formularios", 10_000);
+
+        long inicio = System.nanoTime();
+        List<Formulario> guardados = formularioRepository.saveAll(nuevos(cantidad));
+        formularioRepository.flush();
+        long insercion = System.nanoTime() - inicio;
+
+        inicio = System.nanoTime();
+        guardados.forEach(f -> f.setEstado(Formulario.Estado.VENCIDO));
+        formularioRepository.flush();
+        long actualizacion = System.nanoTime() - inicio;
+
+        System.out.printf("Alta de %d formularios: %d ms (%.0f filas/s), %d sentencias%n",
+                cantidad, insercion / 1_000_000, cantidad / (insercion / 1e9), estadisticas.getPrepareStatementCount());
+        System.out.printf("Cambio de estado de %d formularios: %d ms (%.0f filas/s)%n",
+                cantidad, actualizacion / 1_000_000, cantidad / (actualizacion / 1e9));
+    }
+}
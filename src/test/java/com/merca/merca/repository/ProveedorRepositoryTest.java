@@ -0,0 +1,47 @@
+package com.merca.merca.repository;
+
+import com.merca.merca.entity.Proveedor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@DisplayName("Tests para las consultas de ProveedorRepository")
+class ProveedorRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProveedorRepository proveedorRepository;
+
+    @BeforeEach
+    void setUp() {
+        entityManager.persist(new Proveedor("Lácteos del Norte", "LAC010101AAA", "Lácteos del Norte S.A.", "l@proveedor.com", "Luis"));
+        entityManager.persist(new Proveedor("Abarrotes Peña", "ABA010101AAA", "Abarrotes Peña S.A.", "a@proveedor.com", "Ana"));
+        entityManager.persist(new Proveedor("Bebidas Norteñas", "BEB010101AAA", "Bebidas Norteñas S.A.", "b@proveedor.com", "Beto"));
+        entityManager.flush();
+    }
+
+    @Test
+    @DisplayName("La búsqueda por texto cubre nombre, RFC y contacto, y respeta el límite")
+    void testBuscarPorTexto() {
+        List<Proveedor> porNombre = proveedorRepository.buscarPorTexto("norte", Proveedor.Estado.ACTIVO, 10);
+        assertEquals(2, porNombre.size());
+
+        assertEquals("Abarrotes Peña",
+                proveedorRepository.buscarPorTexto("aba0101", Proveedor.Estado.ACTIVO, 10).get(0).getNombre());
+        assertEquals(1, proveedorRepository.buscarPorTexto("beto", Proveedor.Estado.ACTIVO, 10).size());
+        assertEquals(1, proveedorRepository.buscarPorTexto("norte", Proveedor.Estado.ACTIVO, 1).size());
+        assertTrue(proveedorRepository.buscarPorTexto("norte", Proveedor.Estado.INACTIVO, 10).isEmpty());
+    }
+}
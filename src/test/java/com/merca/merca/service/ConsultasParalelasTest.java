@@ -0,0 +1,130 @@
+package com.merca.merca.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para las consultas en paralelo")
+class ConsultasParalelasTest {
+
+    private final Set<Boolean> transaccionesSoloLectura = ConcurrentHashMap.newKeySet();
+
+    private final PlatformTransactionManager transactionManager = new PlatformTransactionManager() {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            transaccionesSoloLectura.add(definition.isReadOnly());
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    };
+
+    private ExecutorService ejecutor;
+
+    @BeforeEach
+    void setUp() {
+        ejecutor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ejecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Las consultas corren a la vez en transacciones de solo lectura")
+    void testConsultasEnParalelo() {
+        ConsultasParalelas consultas = new ConsultasParalelas(ejecutor, transactionManager, 5000);
+        // Cada consulta espera a que la otra haya empezado: en secuencia agotarían el plazo
+        CountDownLatch iniciadas = new CountDownLatch(2);
+
+        ConsultasParalelas.Lote lote = consultas.nuevoLote();
+        ConsultasParalelas.Pendiente<String> primera = lote.enviar(() -> esperarAmbas(iniciadas, "a"));
+        ConsultasParalelas.Pendiente<String> segunda = lote.enviar(() -> esperarAmbas(iniciadas, "b"));
+        lote.esperar();
+
+        assertEquals("a", primera.get());
+        assertEquals("b", segunda.get());
+        assertEquals(Set.of(true), transaccionesSoloLectura);
+    }
+
+    @Test
+    @DisplayName("Al agotarse el plazo se cancelan las consultas pendientes")
+    void testPlazoAgotado() {
+        ConsultasParalelas consultas = new ConsultasParalelas(ejecutor, transactionManager, 100);
+        CountDownLatch nunca = new CountDownLatch(2);
+
+        ConsultasParalelas.Lote lote = consultas.nuevoLote();
+        ConsultasParalelas.Pendiente<String> lenta = lote.enviar(() -> esperarAmbas(nunca, "lenta"));
+
+        RuntimeException error = assertThrows(RuntimeException.class, lote::esperar);
+        assertTrue(error.getMessage().contains("100 ms"));
+        assertThrows(RuntimeException.class, lenta::get);
+    }
+
+    @Test
+    @DisplayName("El error de una consulta se propaga tal cual")
+    void testErrorPropagado() {
+        ConsultasParalelas consultas = new ConsultasParalelas(ejecutor, transactionManager, 5000);
+
+        ConsultasParalelas.Lote lote = consultas.nuevoLote();
+        lote.enviar(() -> "ok");
+        lote.enviar(() -> {
+            throw new IllegalArgumentException("Filtro inválido");
+        });
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, lote::esperar);
+        assertEquals("Filtro inválido", error.getMessage());
+    }
+
+    @Test
+    @DisplayName("Sin hilos libres la consulta corre en el hilo que la envía, sin esperar en cola")
+    void testPoolOcupado() {
+        ConsultasParalelas consultas = new ConsultasParalelas(1, transactionManager, 5000, new SimpleMeterRegistry());
+        CountDownLatch iniciadas = new CountDownLatch(2);
+
+        ConsultasParalelas.Lote lote = consultas.nuevoLote();
+        ConsultasParalelas.Pendiente<String> primera =
+                lote.enviar(() -> esperarAmbas(iniciadas, Thread.currentThread().getName()));
+        ConsultasParalelas.Pendiente<String> segunda =
+                lote.enviar(() -> esperarAmbas(iniciadas, Thread.currentThread().getName()));
+        lote.esperar();
+
+        assertTrue(primera.get().startsWith("consulta-paralela-"));
+        assertEquals(Thread.currentThread().getName(), segunda.get());
+    }
+
+    private static String esperarAmbas(CountDownLatch latch, String resultado) {
+        latch.countDown();
+        try {
+            if (!latch.await(2, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("La otra consulta no empezó");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Consulta cancelada", e);
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,38 @@
+package com.merca.merca.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para los cursores de paginación por llave")
+class CursorKeysetTest {
+
+    @Test
+    @DisplayName("El cursor se codifica y decodifica sin pérdida")
+    void testIdaYVuelta() {
+        CursorKeyset cursor = new CursorKeyset("Peñafiel | Bebidas", 42L);
+
+        CursorKeyset decodificado = CursorKeyset.decodificar(cursor.codificar());
+
+        assertEquals(cursor, decodificado);
+    }
+
+    @Test
+    @DisplayName("Un cursor sin clave conserva el id")
+    void testCursorSinClave() {
+        CursorKeyset decodificado = CursorKeyset.decodificar(new CursorKeyset(null, 7L).codificar());
+
+        assertNotNull(decodificado);
+        assertEquals(7L, decodificado.id());
+    }
+
+    @Test
+    @DisplayName("Un cursor inválido se trata como primera página")
+    void testCursorInvalido() {
+        assertNull(CursorKeyset.decodificar(null));
+        assertNull(CursorKeyset.decodificar(""));
+        assertNull(CursorKeyset.decodificar("%%%"));
+        assertNull(CursorKeyset.decodificar("c2luLXNlcGFyYWRvcg"));
+    }
+}
@@ -0,0 +1,96 @@
+package com.merca.merca.service;
+
+import com.merca.merca.DatosPrueba;
+import com.merca.merca.dto.ConteoAgrupado;
+import com.merca.merca.entity.Formulario;
+import com.merca.merca.entity.Proveedor;
+import com.merca.merca.entity.Usuario;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(EstadisticaService.class)
+@DisplayName("Tests para los contadores de estadísticas")
+class EstadisticaServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EstadisticaService estadisticaService;
+
+    @BeforeEach
+    void setUp() {
+        DatosPrueba datos = new DatosPrueba(entityManager);
+        Usuario usuario = datos.persistirUsuarioTienda();
+        Proveedor proveedor = datos.persistirProveedorA();
+
+        LocalDateTime ahora = LocalDateTime.now();
+        datos.persistirFormulario("TDA001", proveedor, usuario, Formulario.Estado.ACTIVO, ahora);
+        datos.persistirFormulario("TDA001", proveedor, usuario, Formulario.Estado.ACTIVO, ahora);
+        datos.persistirFormulario("TDA001", proveedor, usuario, Formulario.Estado.VENCIDO, ahora);
+        datos.persistirFormulario("TDA002", proveedor, usuario, Formulario.Estado.CANCELADO, ahora);
+        entityManager.flush();
+
+        estadisticaService.reconstruir();
+    }
+
+    @Test
+    @DisplayName("La reconstrucción cuenta por tienda, por estado y por proveedor")
+    void testReconstruir() {
+        assertEquals(2, estadisticaService.contarFormularios("TDA001", Formulario.Estado.ACTIVO));
+        assertEquals(0, estadisticaService.contarFormularios("TDA001", Formulario.Estado.CANCELADO));
+        assertEquals(2, estadisticaService.contarFormularios(null, Formulario.Estado.ACTIVO));
+        assertEquals(1, estadisticaService.contarFormularios(null, Formulario.Estado.CANCELADO));
+        assertEquals(1, estadisticaService.contarProveedores(Proveedor.Estado.ACTIVO));
+    }
+
+    @Test
+    @DisplayName("Un cambio de estado mueve el conteo entre contadores")
+    void testCambioDeEstado() {
+        estadisticaService.registrarCambioFormulario("TDA001", Formulario.Estado.ACTIVO,
+                                                     "TDA001", Formulario.Estado.VENCIDO);
+
+        assertEquals(1, estadisticaService.contarFormularios("TDA001", Formulario.Estado.ACTIVO));
+        assertEquals(2, estadisticaService.contarFormularios("TDA001", Formulario.Estado.VENCIDO));
+        assertEquals(1, estadisticaService.contarFormularios(null, Formulario.Estado.ACTIVO));
+        assertEquals(2, estadisticaService.contarFormularios(null, Formulario.Estado.VENCIDO));
+    }
+
+    @Test
+    @DisplayName("Un lote de vencimiento pasa sus formularios de ACTIVO a VENCIDO por tienda")
+    void testVencimientos() {
+        estadisticaService.registrarVencimientos(List.of(new ConteoAgrupado<>("TDA001", 2)));
+
+        assertEquals(0, estadisticaService.contarFormularios("TDA001", Formulario.Estado.ACTIVO));
+        assertEquals(3, estadisticaService.contarFormularios("TDA001", Formulario.Estado.VENCIDO));
+        assertEquals(0, estadisticaService.contarFormularios(null, Formulario.Estado.ACTIVO));
+        assertEquals(3, estadisticaService.contarFormularios(null, Formulario.Estado.VENCIDO));
+    }
+
+    @Test
+    @DisplayName("Altas y bajas crean y descuentan contadores")
+    void testAltaYBaja() {
+        estadisticaService.registrarCambioFormulario(null, null, "TDA003", Formulario.Estado.ACTIVO);
+        estadisticaService.registrarCambioFormulario("TDA001", Formulario.Estado.ACTIVO, null, null);
+        estadisticaService.registrarCambioProveedor(Proveedor.Estado.ACTIVO, Proveedor.Estado.SUSPENDIDO);
+
+        assertEquals(1, estadisticaService.contarFormularios("TDA003", Formulario.Estado.ACTIVO));
+        assertEquals(1, estadisticaService.contarFormularios("TDA001", Formulario.Estado.ACTIVO));
+        assertEquals(2, estadisticaService.contarFormularios(null, Formulario.Estado.ACTIVO));
+        assertEquals(0, estadisticaService.contarProveedores(Proveedor.Estado.ACTIVO));
+        assertEquals(1, estadisticaService.contarProveedores(Proveedor.Estado.SUSPENDIDO));
+    }
+}
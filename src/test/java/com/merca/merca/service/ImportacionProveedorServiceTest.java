@@ -0,0 +1,123 @@
+package com.merca.merca.service;
+
+import com.merca.merca.dto.ResultadoImportacion;
+import com.merca.merca.entity.Proveedor;
+import com.merca.merca.index.FiltrosUnicidad;
+import com.merca.merca.index.IndiceAutocompletado;
+import com.merca.merca.repository.ProveedorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Import({ImportacionProveedorService.class, EstadisticaService.class, IndiceAutocompletado.class, FiltrosUnicidad.class})
+@DisplayName("Tests para la importación masiva de proveedores")
+class ImportacionProveedorServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ImportacionProveedorService importacionProveedorService;
+
+    @Autowired
+    private ProveedorRepository proveedorRepository;
+
+    @Autowired
+    private EstadisticaService estadisticaService;
+
+    @BeforeEach
+    void setUp() {
+        entityManager.persist(new Proveedor("Existente", "EXI010101AAA", "Existente S.A.", "existe@proveedor.com", "Eva"));
+        entityManager.flush();
+        estadisticaService.reconstruir();
+    }
+
+    private ResultadoImportacion importar(String csv) throws IOException {
+        return importacionProveedorService.importarCsv(new BufferedReader(new StringReader(csv)));
+    }
+
+    @Test
+    @DisplayName("Registra las filas válidas y reporta las rechazadas con su línea")
+    void testImportar() throws IOException {
+        ResultadoImportacion resultado = importar("""
+                \uFEFFNombre,RFC,Razón social,Email,Teléfono,Dirección,Contacto principal
+                Proveedor A,aaa010101aaa,"Proveedor A, S.A.",a@proveedor.com,5512345678,,Ana
+                Proveedor B,BBB010101BBB,Proveedor B S.A.,,123,,Beto
+                Proveedor C,EXI010101AAA,Proveedor C S.A.,,,,Caro
+                Proveedor D,AAA010101AAA,Proveedor D S.A.,,,,Dani
+
+                Proveedor E,EEE010101EEE,Proveedor E S.A.,existe@proveedor.com,,,Eli
+                Proveedor F,FFF010101FFF,Proveedor F S.A.,,,,Fer
+                """);
+
+        assertEquals(6, resultado.getTotal());
+        assertEquals(2, resultado.getAceptadas());
+        assertEquals(4, resultado.getRechazadas());
+
+        ResultadoImportacion.Fila telefonoInvalido = resultado.getErrores().get(0);
+        assertEquals(3, telefonoInvalido.numero());
+        assertEquals("El teléfono debe tener 10 dígitos", telefonoInvalido.errores().get(0));
+        assertEquals("El RFC ya está registrado", resultado.getErrores().get(1).errores().get(0));
+        assertEquals("El RFC está repetido en el archivo", resultado.getErrores().get(2).errores().get(0));
+        assertEquals(7, resultado.getErrores().get(3).numero());
+
+        Proveedor importado = proveedorRepository.findByRfc("AAA010101AAA").orElseThrow();
+        assertEquals("Proveedor A, S.A.", importado.getRazonSocial());
+        assertTrue(proveedorRepository.existsByRfc("FFF010101FFF"));
+        assertEquals(3, estadisticaService.contarProveedores(Proveedor.Estado.ACTIVO));
+    }
+
+    @Test
+    @DisplayName("Una fila rechazada no reserva su RFC ni su email")
+    void testFilaInvalidaNoReservaClaves() throws IOException {
+        ResultadoImportacion resultado = importar("""
+                nombre,rfc,razonSocial,email,telefono,direccion,contactoPrincipal
+                Proveedor G,GGG010101GGG,Proveedor G S.A.,g@proveedor.com,123,,Gil
+                Proveedor G2,GGG010101GGG,Proveedor G S.A.,g@proveedor.com,,,Gil
+                """);
+
+        assertEquals(1, resultado.getAceptadas());
+        assertEquals(2, resultado.getErrores().get(0).numero());
+        assertEquals("El teléfono debe tener 10 dígitos", resultado.getErrores().get(0).errores().get(0));
+        assertTrue(proveedorRepository.existsByRfc("GGG010101GGG"));
+    }
+
+    @Test
+    @DisplayName("Los emails se comparan sin distinguir mayúsculas")
+    void testEmailSinDistinguirMayusculas() throws IOException {
+        entityManager.persist(new Proveedor("Mayúsculas", "MAY010101AAA", "Mayúsculas S.A.", "Foo@Proveedor.com", "Mia"));
+        entityManager.flush();
+
+        ResultadoImportacion resultado = importar("""
+                nombre,rfc,razonSocial,email,contactoPrincipal
+                Proveedor H,HHH010101HHH,Proveedor H S.A.,FOO@proveedor.COM,Hugo
+                """);
+
+        assertEquals(0, resultado.getAceptadas());
+        assertEquals("El email ya está registrado", resultado.getErrores().get(0).errores().get(0));
+        assertTrue(proveedorRepository.existsByEmail("foo@proveedor.com"));
+    }
+
+    @Test
+    @DisplayName("Rechaza archivos sin las columnas obligatorias")
+    void testEncabezadoIncompleto() {
+        RuntimeException error = assertThrows(RuntimeException.class, () -> importar("nombre,rfc\nA,AAA010101AAA\n"));
+        assertTrue(error.getMessage().contains("razonsocial"));
+    }
+}
@@ -0,0 +1,55 @@
+package com.merca.merca.service;
+
+import com.merca.merca.config.CacheConfig;
+import com.merca.merca.dto.ProveedorOpcion;
+import com.merca.merca.entity.Proveedor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Tests para la caché de proveedores")
+class ProveedorServiceCacheTest {
+
+    @Autowired
+    private ProveedorService proveedorService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private double lecturas(String resultado) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", CacheConfig.PROVEEDORES_ACTIVOS)
+                .tag("result", resultado)
+                .functionCounter().count();
+    }
+
+    @Test
+    @DisplayName("Sirve las opciones desde la caché y las invalida al registrar, suspender y activar")
+    void testCacheProveedoresActivos() {
+        proveedorService.obtenerOpcionesProveedoresActivos();
+        double aciertos = lecturas("hit");
+        proveedorService.obtenerOpcionesProveedoresActivos();
+        assertEquals(aciertos + 1, lecturas("hit"));
+
+        Proveedor proveedor = proveedorService.registrarProveedor(
+                new Proveedor("Cacheado", "CAC010101AAA", "Cacheado S.A.", "cache@proveedor.com", "Carla"));
+        assertTrue(proveedorService.obtenerOpcionesProveedoresActivos().stream()
+                .anyMatch(o -> o.id().equals(proveedor.getId())));
+        assertEquals("Cacheado", proveedorService.obtenerOpcion(proveedor.getId()).map(ProveedorOpcion::nombre).orElse(null));
+
+        proveedorService.suspenderProveedor(proveedor.getId());
+        assertTrue(proveedorService.obtenerOpcionesProveedoresActivos().stream()
+                .noneMatch(o -> o.id().equals(proveedor.getId())));
+
+        proveedorService.activarProveedor(proveedor.getId());
+        assertTrue(proveedorService.obtenerOpcionesProveedoresActivos().stream()
+                .anyMatch(o -> o.id().equals(proveedor.getId())));
+    }
+}
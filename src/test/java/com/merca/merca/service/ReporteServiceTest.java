@@ -0,0 +1,90 @@
+package com.merca.merca.service;
+
+import com.merca.merca.DatosPrueba;
+import com.merca.merca.dto.DistribucionReporte;
+import com.merca.merca.dto.ReporteGeneral;
+import com.merca.merca.entity.Formulario;
+import com.merca.merca.entity.Proveedor;
+import com.merca.merca.entity.Usuario;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(ReporteService.class)
+@DisplayName("Tests para el reporte general del administrador")
+class ReporteServiceTest {
+
+    private static final LocalDateTime AHORA = LocalDateTime.now();
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ReporteService reporteService;
+
+    private DatosPrueba datos;
+
+    private Usuario usuario;
+
+    private Proveedor proveedorA;
+
+    @BeforeEach
+    void setUp() {
+        datos = new DatosPrueba(entityManager);
+        usuario = datos.persistirUsuarioTienda();
+
+        proveedorA = datos.persistirProveedorA();
+        Proveedor proveedorB = DatosPrueba.proveedorB();
+        proveedorB.setEstado(Proveedor.Estado.SUSPENDIDO);
+        entityManager.persist(proveedorB);
+
+        datos.persistirFormulario("TDA001", proveedorA, usuario, Formulario.TipoEspacio.GONDOLA, Formulario.Estado.ACTIVO, AHORA);
+        datos.persistirFormulario("TDA001", proveedorA, usuario, Formulario.TipoEspacio.GONDOLA, Formulario.Estado.ACTIVO, AHORA);
+        datos.persistirFormulario("TDA001", proveedorA, usuario, Formulario.TipoEspacio.ISLA, Formulario.Estado.VENCIDO, AHORA);
+        datos.persistirFormulario("TDA001", proveedorB, usuario, Formulario.TipoEspacio.CAJA, Formulario.Estado.CANCELADO, AHORA);
+        entityManager.flush();
+    }
+
+    @Test
+    @DisplayName("Dos proveedores con el mismo nombre ocupan filas distintas en el ranking")
+    void testProveedoresConMismoNombre() {
+        Proveedor homonimo = new Proveedor("Proveedor A", "HOM010101AAA", "Homónimo S.A.", "h@proveedor.com", "Hugo");
+        entityManager.persist(homonimo);
+        datos.persistirFormulario("TDA001", homonimo, usuario, Formulario.TipoEspacio.ISLA, Formulario.Estado.ACTIVO, AHORA);
+        entityManager.flush();
+
+        DistribucionReporte ranking = reporteService.generarReporteGeneral().formulariosPorProveedor();
+
+        assertEquals(3, ranking.filas().size());
+        assertEquals(3, ranking.cantidad(String.valueOf(proveedorA.getId())));
+        assertEquals(1, ranking.cantidad(String.valueOf(homonimo.getId())));
+    }
+
+    @Test
+    @DisplayName("Los conteos y porcentajes salen de las agregaciones")
+    void testReporteGeneral() {
+        ReporteGeneral reporte = reporteService.generarReporteGeneral();
+
+        assertEquals(4, reporte.formulariosPorEstado().total());
+        assertEquals(2, reporte.formulariosPorEstado().cantidad("ACTIVO"));
+        assertEquals(50, reporte.formulariosPorEstado().porcentaje("ACTIVO"));
+        assertEquals(0, reporte.formulariosPorEstado().cantidad("PENDIENTE_APROBACION"));
+        assertEquals(1, reporte.proveedoresPorEstado().cantidad("SUSPENDIDO"));
+
+        assertEquals("Góndola", reporte.formulariosPorTipoEspacio().filas().get(0).etiqueta());
+        assertEquals(2, reporte.formulariosPorTipoEspacio().filas().get(0).total());
+        assertEquals("Proveedor A", reporte.formulariosPorProveedor().filas().get(0).etiqueta());
+        assertEquals(75, reporte.formulariosPorProveedor().filas().get(0).porcentaje());
+    }
+}
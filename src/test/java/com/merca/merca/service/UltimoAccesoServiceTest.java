@@ -0,0 +1,59 @@
+package com.merca.merca.service;
+
+import com.merca.merca.entity.Usuario;
+import com.merca.merca.repository.UsuarioRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(UltimoAccesoService.class)
+@DisplayName("Tests para la escritura en lote de los últimos accesos")
+class UltimoAccesoServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UltimoAccesoService ultimoAccesoService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    private LocalDateTime ultimoAcceso(Long id) {
+        entityManager.clear();
+        return usuarioRepository.findById(id).orElseThrow().getFechaUltimoAcceso();
+    }
+
+    @Test
+    @DisplayName("Escribe solo el acceso más reciente de cada usuario y nunca retrocede la fecha")
+    void testEscribirPendientes() {
+        Long ana = entityManager.persist(new Usuario("ana", "ana@merca.com", "secreto", "Ana", Usuario.Rol.TIENDA)).getId();
+        Long beto = entityManager.persist(new Usuario("beto", "beto@merca.com", "secreto", "Beto", Usuario.Rol.TIENDA)).getId();
+        entityManager.flush();
+
+        LocalDateTime nueve = LocalDateTime.of(2025, 3, 3, 9, 0);
+        ultimoAccesoService.registrarAcceso(ana, nueve);
+        ultimoAccesoService.registrarAcceso(ana, nueve.minusHours(1));
+        ultimoAccesoService.registrarAcceso(beto, nueve.plusMinutes(5));
+        assertEquals(2, ultimoAccesoService.getPendientes());
+
+        assertEquals(2, ultimoAccesoService.escribirPendientes());
+        assertEquals(0, ultimoAccesoService.getPendientes());
+        assertEquals(nueve, ultimoAcceso(ana));
+        assertEquals(nueve.plusMinutes(5), ultimoAcceso(beto));
+
+        ultimoAccesoService.registrarAcceso(ana, nueve.minusDays(1));
+        assertEquals(0, ultimoAccesoService.escribirPendientes());
+        assertEquals(nueve, ultimoAcceso(ana));
+    }
+}